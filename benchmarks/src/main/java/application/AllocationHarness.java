@@ -0,0 +1,166 @@
+package application;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation regression check for the game's per-tick paths.
+ *
+ * <p>Usage: {@code AllocationHarness [--ticks=N] [--warmup=N] [--budget=[SCENARIO=]BYTES ...]
+ * [DIFFICULTY ...]}, by default 20000 measured operations after 100000 warm-up operations on
+ * every difficulty. For each game it measures the heap allocated by the current thread, as
+ * counted by {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}, over
+ * four scenarios:</p>
+ * <ul>
+ *   <li>{@code moveMiner}: the player stepping back and forth on the surface</li>
+ *   <li>{@code enemyStep}: one step of all enemies</li>
+ *   <li>{@code tick}: a full idle game tick, with enemy thinking and movement, the swarm, gas,
+ *       gravity and the oxygen update</li>
+ *   <li>{@code autoWalk}: game ticks while the miner walks a path back and forth along the
+ *       surface; the path searches that start each walk are not counted</li>
+ * </ul>
+ *
+ * <p>Each scenario reports the bytes allocated per operation and fails when it reaches its
+ * budget. The default budgets are set per difficulty and scenario to what that pair allocates
+ * today, rounded down, plus 16 bytes. Nearly all of it is in the style class lists changed by
+ * {@link Cell#updateVisual()}. The figures were taken on a 64-bit Temurin 17.0.9 JVM with
+ * compressed references and 8-byte object alignment, where a boxed {@code Integer} or a lambda
+ * capturing one reference takes 16 bytes. The headroom absorbs small differences between JVMs
+ * and runs, while one more boxed value or lambda per operation still fails on every level.
+ * Other JVM settings may need different budgets. Lower them as allocations are removed;
+ * {@code --budget} overrides a scenario's budget, or all of them, on every difficulty. The process exits with status 1 if
+ * any scenario failed, so the check can run in a build. The warm-up lets the JIT compile the
+ * paths first, because objects that do not escape are only removed from compiled code. With
+ * shorter warm-ups the first difficulty measured varies by tens of bytes from run to run.</p>
+ */
+public class AllocationHarness {
+
+	// Scenario names, and their default budgets in bytes per operation by difficulty ordinal
+	private static final String[] SCENARIOS = {"moveMiner", "enemyStep", "tick", "autoWalk"};
+	private static final long[][] DEFAULT_BUDGETS = {
+			{928, 2224, 126, 365},
+			{880, 3696, 200, 438},
+			{880, 4432, 236, 474}};
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Runs the scenarios on each requested difficulty and prints one line per scenario.
+	 *
+	 * @param args options and difficulties, see the class description
+	 */
+	public static void main(String[] args) {
+		int ticks = 20_000;
+		int warmup = 100_000;
+		long[] overrides = {-1, -1, -1, -1};
+		List<Difficulty> difficulties = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--ticks=")) {
+				ticks = Integer.parseInt(arg.substring("--ticks=".length()));
+			} else if (arg.startsWith("--warmup=")) {
+				warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+			} else if (arg.startsWith("--budget=")) {
+				String[] pair = arg.substring("--budget=".length()).split("=");
+				long bytes = Long.parseLong(pair[pair.length - 1]);
+				for (int s = 0; s < SCENARIOS.length; s++) {
+					if (pair.length == 1 || SCENARIOS[s].equals(pair[0])) {
+						overrides[s] = bytes;
+					}
+				}
+			} else {
+				difficulties.add(Difficulty.valueOf(arg.toUpperCase()));
+			}
+		}
+		if (difficulties.isEmpty()) {
+			difficulties.addAll(List.of(Difficulty.values()));
+		}
+
+		HeadlessFx.start();
+		System.out.printf("%-10s %-10s %10s %12s %8s  %s%n", "difficulty", "scenario", "ops",
+				"bytes/op", "budget", "result");
+		boolean failed = false;
+		for (Difficulty difficulty : difficulties) {
+			Scenarios scenarios = new Scenarios(difficulty);
+			for (int s = 0; s < SCENARIOS.length; s++) {
+				long budget = overrides[s] >= 0 ? overrides[s] : DEFAULT_BUDGETS[difficulty.ordinal()][s];
+				scenarios.run(s, warmup);
+				long bytes = scenarios.run(s, ticks);
+				double perOp = bytes / (double) ticks;
+				boolean pass = perOp < budget;
+				failed |= !pass;
+				System.out.printf("%-10s %-10s %10d %12.2f %8d  %s%n", difficulty, SCENARIOS[s],
+						ticks, perOp, budget, pass ? "ok" : "OVER BUDGET");
+			}
+		}
+		System.exit(failed ? 1 : 0);
+	}
+
+	/**
+	 * The measured scenarios on one game.
+	 */
+	private static final class Scenarios {
+
+		private final GameModel model;
+		private final EnemyStepper stepper;
+		private final int surfaceRow;
+		private final int homeCol;
+		private final int farCol;
+		private boolean right;
+		private boolean outbound;
+
+		Scenarios(Difficulty difficulty) {
+			model = HeadlessFx.newGame(difficulty);
+			stepper = new EnemyStepper(model.getMap());
+			surfaceRow = model.getMiner().getRow();
+			homeCol = model.getMiner().getCol();
+			farCol = Math.min(model.getMap().getCols() - 2, homeCol + 8);
+		}
+
+		/**
+		 * Runs a scenario, by its index in {@link AllocationHarness#SCENARIOS}, for a number of
+		 * operations.
+		 *
+		 * @return the bytes allocated by the measured operations
+		 */
+		long run(int scenario, int ops) {
+			long excluded = 0;
+			long start = THREADS.getCurrentThreadAllocatedBytes();
+			switch (scenario) {
+				case 0 -> {
+					for (int i = 0; i < ops; i++) {
+						right = !right;
+						model.moveMiner(right ? GameModel.Direction.RIGHT : GameModel.Direction.LEFT);
+					}
+				}
+				case 1 -> {
+					for (int i = 0; i < ops; i++) {
+						stepper.step(model.getMiner());
+					}
+				}
+				case 2 -> {
+					model.cancelWalk();
+					for (int i = 0; i < ops; i++) {
+						model.tick();
+					}
+				}
+				default -> {
+					for (int i = 0; i < ops; i++) {
+						if (!model.getAutoWalker().isWalking()) {
+							long before = THREADS.getCurrentThreadAllocatedBytes();
+							outbound = !outbound;
+							model.walkTo(surfaceRow, outbound ? farCol : homeCol);
+							excluded += THREADS.getCurrentThreadAllocatedBytes() - before;
+						}
+						model.tick();
+					}
+				}
+			}
+			if (model.isGameOver()) {
+				throw new IllegalStateException("Game ended during " + SCENARIOS[scenario]);
+			}
+			return THREADS.getCurrentThreadAllocatedBytes() - start - excluded;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Cell#updateVisual()} for each visual state of a cell.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CellBenchmark {
+
+	/**
+	 * The visual states a cell can be drawn in.
+	 */
+	public enum Visual {
+		/** Unrevealed, under the fog. */
+		FOG,
+		/** Revealed block. */
+		REVEALED,
+		/** Revealed and mined out. */
+		DESTROYED,
+		/** Holding the miner. */
+		MINER,
+		/** Holding a visible enemy. */
+		ENEMY,
+		/** Holding the miner and an enemy. */
+		MINER_AND_ENEMY
+	}
+
+	@Param
+	public Visual visual;
+
+	private Cell cell;
+
+	/**
+	 * Puts a surface cell into the benchmarked state.
+	 */
+	@Setup
+	public void setup() {
+		GameModel model = HeadlessFx.newGame(Difficulty.EASY);
+		cell = model.getMap().getCells()[5][5];
+		switch (visual) {
+			case FOG -> cell.setRevealed(false);
+			case REVEALED -> cell.setRevealed(true);
+			case DESTROYED -> {
+				cell.setContents(CellType.DESTROYED);
+				cell.setRevealed(true);
+			}
+			case MINER -> {
+				cell.setRevealed(true);
+				cell.setHasMiner(true);
+			}
+			case ENEMY -> {
+				cell.setRevealed(true);
+				cell.setHasEnemy(true);
+			}
+			case MINER_AND_ENEMY -> {
+				cell.setRevealed(true);
+				cell.setHasMiner(true);
+				cell.setHasEnemy(true);
+			}
+		}
+	}
+
+	/**
+	 * Restyles the cell.
+	 */
+	@Benchmark
+	public void updateVisual() {
+		cell.updateVisual();
+	}
+}
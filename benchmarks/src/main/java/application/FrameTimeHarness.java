@@ -0,0 +1,317 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Stage;
+
+/**
+ * End-to-end frame-time benchmark of the real game scene on generated maps.
+ *
+ * <p>Usage: {@code FrameTimeHarness [COLSxROWS ...] [--pulses=N]}, by default on maps of 20x100,
+ * 20x1000 and 100x1000 cells for 600 pulses each. For every size the harness builds the scene
+ * with {@link Main#showGameScreen(Stage, GameModel)}, shows it on the headless Monocle platform
+ * and plays a fixed script of key presses, mining clicks and drag paths, one input every few
+ * pulses, through the same handlers a player would reach.</p>
+ *
+ * <p>A pulse is timed from the first animation timer of the pulse, which runs before the game
+ * loop, to the end of the scene's CSS and layout pass, so it covers the game ticks, the view
+ * updates, CSS and layout. Rendering runs on the separate render thread and is not included;
+ * it shows up in the interval between pulses. The report gives pulse time and pulse interval
+ * percentiles, the setup time up to the end of the first pulse, the number of scene graph nodes
+ * and the heap in use after a full collection, and the input-to-layout latency of the scripted
+ * arrow keys and cell clicks as traced by {@link InputTracer}. A key latency under the frame
+ * interval means the move is shown in the frame right after the key press.</p>
+ */
+public class FrameTimeHarness {
+
+	/** Pulses run before measuring, for warm-up. */
+	private static final int WARMUP_PULSES = 120;
+
+	/** Pulses between two scripted inputs. */
+	private static final int PULSES_PER_INPUT = 6;
+
+	/**
+	 * Runs the harness for each requested map size and prints one report line per size.
+	 *
+	 * @param args map sizes as {@code COLSxROWS}, and optionally {@code --pulses=N}
+	 * @throws Exception if the toolkit fails to start or a run fails
+	 */
+	public static void main(String[] args) throws Exception {
+		List<int[]> sizes = new ArrayList<>();
+		int pulses = 600;
+		for (String arg : args) {
+			if (arg.startsWith("--pulses=")) {
+				pulses = Integer.parseInt(arg.substring("--pulses=".length()));
+			} else {
+				String[] parts = arg.toLowerCase().split("x");
+				sizes.add(new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])});
+			}
+		}
+		if (sizes.isEmpty()) {
+			sizes.add(new int[] {20, 100});
+			sizes.add(new int[] {20, 1000});
+			sizes.add(new int[] {100, 1000});
+		}
+
+		HeadlessFx.start();
+		System.out.printf("%-10s %9s %8s %8s %8s %8s %8s %9s %8s %9s %8s %8s %9s%n", "map", "setup ms",
+				"p50 ms", "p90 ms", "p99 ms", "max ms", "gap p50", "gap p99", "nodes", "heap MB",
+				"key p50", "key p99", "click p99");
+		for (int[] size : sizes) {
+			Run run = new Run(size[0], size[1], pulses);
+			run.execute();
+			run.report();
+		}
+		Platform.exit();
+	}
+
+	/**
+	 * One measured run on one map size.
+	 */
+	private static final class Run {
+		private final int cols;
+		private final int rows;
+		private final int pulses;
+
+		// Per-pulse measurements, in nanoseconds
+		private final long[] pulseTime;
+		private final long[] pulseGap;
+		private int measured = 0;
+
+		private long setupNanos;
+		private int nodes;
+		private long heapBytes;
+
+		// State used on the JavaFX application thread during the run
+		private Main main;
+		private GameModel model;
+		private Scene scene;
+		private long pulseStart;
+		private long lastPulseStart;
+		private int pulse = 0;
+		private int step = 0;
+		private final MouseEvent release = new MouseEvent(MouseEvent.MOUSE_RELEASED, 0, 0, 0, 0,
+				MouseButton.PRIMARY, 1, false, false, false, false, false, false, false, false, false,
+				false, null);
+
+		Run(int cols, int rows, int pulses) {
+			this.cols = cols;
+			this.rows = rows;
+			this.pulses = pulses;
+			this.pulseTime = new long[pulses];
+			this.pulseGap = new long[pulses];
+		}
+
+		/**
+		 * Builds the scene, plays the script for the requested number of pulses and tears the
+		 * scene down again.
+		 */
+		void execute() throws InterruptedException {
+			CountDownLatch done = new CountDownLatch(1);
+			Stage[] stage = new Stage[1];
+			AnimationTimer[] timer = new AnimationTimer[1];
+
+			for (InputTracer.Kind kind : InputTracer.Kind.values()) {
+				kind.getLatency().reset();
+			}
+			Platform.runLater(() -> {
+				long start = System.nanoTime();
+				model = new GameModel(HeadlessFx.CHARACTER, Difficulty.EASY,
+						generateLayout(cols, rows, HeadlessFx.SEED), HeadlessFx.SEED);
+				model.setDeterministic(true);
+				stage[0] = new Stage();
+				main = new Main();
+
+				// Started before the game loop, so it runs first in every pulse
+				timer[0] = new AnimationTimer() {
+					@Override
+					public void handle(long now) {
+						lastPulseStart = pulseStart;
+						pulseStart = System.nanoTime();
+						if (pulse % PULSES_PER_INPUT == 0) {
+							playNextInput();
+						}
+					}
+				};
+				timer[0].start();
+
+				main.showGameScreen(stage[0], model);
+				scene = stage[0].getScene();
+				scene.addPostLayoutPulseListener(() -> {
+					if (pulse == 0) {
+						// Skins are created in the first CSS pass, so count once it is done
+						setupNanos = System.nanoTime() - start;
+						nodes = countNodes(scene.getRoot());
+					}
+					if (pulse >= WARMUP_PULSES && measured < pulses) {
+						pulseTime[measured] = System.nanoTime() - pulseStart;
+						pulseGap[measured] = pulseStart - lastPulseStart;
+						measured++;
+					}
+					pulse++;
+					if (measured == pulses) {
+						timer[0].stop();
+						main.gameLoop.stop();
+						done.countDown();
+					}
+				});
+				stage[0].show();
+			});
+			done.await();
+
+			CountDownLatch closed = new CountDownLatch(1);
+			Platform.runLater(() -> {
+				System.gc();
+				Runtime runtime = Runtime.getRuntime();
+				heapBytes = runtime.totalMemory() - runtime.freeMemory();
+				stage[0].close();
+				closed.countDown();
+			});
+			closed.await();
+			main = null;
+			model = null;
+			scene = null;
+		}
+
+		/**
+		 * Plays the next input of the fixed script: mine the block below, step down, mine
+		 * the block to the right, step right, then drag a path back to the left.
+		 */
+		private void playNextInput() {
+			if (model.isGameOver()) {
+				return;
+			}
+			Miner miner = model.getMiner();
+			Cell[][] cells = model.getMap().getCells();
+			int row = miner.getRow();
+			int col = miner.getCol();
+			switch (step++ % 10) {
+				case 0, 1, 2 -> click(cells, row + 1, col);
+				case 3 -> press(KeyCode.DOWN);
+				case 4, 5, 6 -> click(cells, row, col + 1);
+				case 7 -> press(KeyCode.RIGHT);
+				case 8 -> {
+					model.clearPath();
+					for (int c = col - 1; c >= Math.max(0, col - 3) && cells[row][c].isWalkable(); c--) {
+						model.addToPath(row, c);
+						cells[row][c].getStyleClass().add("marked");
+					}
+					model.moveAlongPath();
+					Event.fireEvent(scene, release);
+				}
+				default -> press(KeyCode.ESCAPE);
+			}
+		}
+
+		private void click(Cell[][] cells, int row, int col) {
+			if (row < rows && col < cols) {
+				cells[row][col].fire();
+				Event.fireEvent(scene, release);
+			}
+		}
+
+		private void press(KeyCode code) {
+			Event.fireEvent(scene, new KeyEvent(KeyEvent.KEY_PRESSED, "", "", code,
+					false, false, false, false));
+		}
+
+		/**
+		 * Prints the report line of this run.
+		 */
+		void report() {
+			long[] time = Arrays.copyOf(pulseTime, measured);
+			long[] gap = Arrays.copyOf(pulseGap, measured);
+			Arrays.sort(time);
+			Arrays.sort(gap);
+			LatencyHistogram keys = InputTracer.Kind.ARROW_KEY.getLatency();
+			LatencyHistogram clicks = InputTracer.Kind.MINE_CLICK.getLatency();
+			System.out.printf("%-10s %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %9.2f %8d %9.1f %8.2f %8.2f %9.2f%n",
+					cols + "x" + rows, setupNanos / 1e6,
+					percentile(time, 50), percentile(time, 90), percentile(time, 99),
+					time[time.length - 1] / 1e6, percentile(gap, 50), percentile(gap, 99),
+					nodes, heapBytes / (1024.0 * 1024.0),
+					keys.getValueAtPercentile(50) / 1e6, keys.getValueAtPercentile(99) / 1e6,
+					clicks.getValueAtPercentile(99) / 1e6);
+		}
+	}
+
+	private static double percentile(long[] sorted, int p) {
+		int index = Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1);
+		return sorted[Math.max(0, index)] / 1e6;
+	}
+
+	private static int countNodes(Node node) {
+		int count = 1;
+		if (node instanceof Parent parent) {
+			for (Node child : parent.getChildrenUnmodifiable()) {
+				count += countNodes(child);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Generates a map in the layout format of {@link Difficulty}: sky, a walkable surface with
+	 * the shop at its end, a grass row, then rock with veins of ore, horizontal tunnels holding
+	 * bats, three key blocks and the final chest at the bottom.
+	 *
+	 * @param cols the number of columns
+	 * @param rows the number of rows, at least 10
+	 * @param seed the generator seed
+	 * @return the layout codes, indexed by row and column
+	 */
+	static int[][] generateLayout(int cols, int rows, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int[][] layout = new int[rows][cols];
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				if (r < 4) {
+					layout[r][c] = 0;
+				} else if (r == 4) {
+					layout[r][c] = c == cols - 1 ? 7 : 1;
+				} else if (r == 5) {
+					layout[r][c] = 2;
+				} else {
+					int roll = random.nextInt(100);
+					layout[r][c] = roll < 45 ? 3 : roll < 70 ? 9 : roll < 80 ? 8 : roll < 90 ? 10
+							: roll < 96 ? 11 : 12;
+				}
+			}
+		}
+
+		// Tunnels every 12 rows, each patrolled by a bat
+		for (int r = 10; r < rows - 3; r += 12) {
+			int start = random.nextInt(Math.max(1, cols - 8));
+			int length = Math.min(cols - start, 4 + random.nextInt(5));
+			for (int c = start; c < start + length; c++) {
+				layout[r][c] = 100;
+			}
+			layout[r][start + length / 2] = -1;
+		}
+
+		// Keys spread over the depth, final area and chest at the bottom
+		for (int k = 1; k <= 3; k++) {
+			int r = Math.min(rows - 3, 6 + k * (rows - 8) / 4);
+			layout[r][random.nextInt(cols)] = 4;
+		}
+		for (int c = 0; c < cols; c++) {
+			layout[rows - 1][c] = 5;
+		}
+		layout[rows - 1][cols / 2] = 6;
+		return layout;
+	}
+}
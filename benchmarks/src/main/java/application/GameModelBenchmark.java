@@ -0,0 +1,73 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the model-side hot paths: a player step, one enemy step and a full game tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameModelBenchmark {
+
+	@Param({"EASY", "MEDIUM", "HARD"})
+	public Difficulty difficulty;
+
+	private GameModel model;
+	private EnemyStepper stepper;
+	private boolean right;
+
+	/**
+	 * Creates the game and a separate enemy stepper over its map.
+	 */
+	@Setup
+	public void setup() {
+		model = HeadlessFx.newGame(difficulty);
+		stepper = new EnemyStepper(model.getMap());
+	}
+
+	/**
+	 * Steps the miner back and forth along the surface.
+	 *
+	 * @return whether the step succeeded, so the work is not eliminated
+	 */
+	@Benchmark
+	public boolean moveMiner() {
+		right = !right;
+		return model.moveMiner(right ? GameModel.Direction.RIGHT : GameModel.Direction.LEFT);
+	}
+
+	/**
+	 * Moves every enemy by one step.
+	 *
+	 * @return the number of enemies that moved
+	 */
+	@Benchmark
+	public int enemyStep() {
+		return stepper.step(model.getMiner());
+	}
+
+	/**
+	 * Runs one full game tick: enemy thinking, swarm, gas, gravity, auto-walk and oxygen.
+	 * The miner stays on the surface, so the game does not end by suffocation.
+	 */
+	@Benchmark
+	public void tick() {
+		model.tick();
+	}
+}
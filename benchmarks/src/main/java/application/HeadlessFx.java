@@ -0,0 +1,58 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.application.Platform;
+
+/**
+ * Starts the JavaFX toolkit for benchmarks, on the Monocle headless platform unless another
+ * glass platform was chosen on the command line.
+ *
+ * <p>Cells are JavaFX controls, so the toolkit must be running before any map is built. The
+ * benchmarks then work on nodes that are never part of a showing scene, which JavaFX allows
+ * from any thread, so they run on the JMH worker thread without a hand-off to the JavaFX
+ * application thread.</p>
+ */
+final class HeadlessFx {
+
+	/** Character image used by every benchmark game. */
+	static final String CHARACTER = "miner-version1.png";
+
+	/** Seed used by every benchmark game, so all runs build the same world. */
+	static final long SEED = 42L;
+
+	private static final AtomicBoolean started = new AtomicBoolean();
+
+	private HeadlessFx() {
+	}
+
+	/**
+	 * Starts the toolkit once per JVM; later calls do nothing.
+	 */
+	static void start() {
+		if (!started.compareAndSet(false, true)) {
+			return;
+		}
+		if (System.getProperty("glass.platform") == null) {
+			System.setProperty("glass.platform", "Monocle");
+			System.setProperty("monocle.platform", "Headless");
+			System.setProperty("prism.order", "sw");
+		}
+		Platform.setImplicitExit(false);
+		Platform.startup(() -> {
+		});
+	}
+
+	/**
+	 * Creates a deterministic game for a benchmark.
+	 *
+	 * @param difficulty the difficulty of the game
+	 * @return the game model
+	 */
+	static GameModel newGame(Difficulty difficulty) {
+		start();
+		GameModel model = new GameModel(CHARACTER, difficulty, SEED);
+		model.setDeterministic(true);
+		return model;
+	}
+}
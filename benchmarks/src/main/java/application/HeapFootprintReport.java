@@ -0,0 +1,469 @@
+package application;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import org.openjdk.jol.util.ObjectUtils;
+import org.openjdk.jol.vm.VM;
+
+/**
+ * Reports the heap retained by each subsystem of a running game, and how it grows with the map.
+ *
+ * <p>Usage: {@code HeapFootprintReport [DIFFICULTY ...] [COLSxROWS ...]
+ * [--extrapolate=COLSxROWS,...]}, by default every difficulty plus synthetic maps of 20x250 and
+ * 20x1000 cells, extrapolated to 20x5000, 100x1000 and 100x10000. Each game is shown on the
+ * headless Monocle platform like in {@link FrameTimeHarness}, so the cells have their skins and
+ * CSS state, and is measured after the first layout with its game loop stopped.</p>
+ *
+ * <p>Object sizes come from JOL, which knows the running VM's object layout. Each subsystem is
+ * the set of objects reachable from its roots without passing through the shared game objects
+ * (model, miner, map, scene, stage and the grid's parents), and an object reached by several
+ * subsystems is counted once, in the first one listed:</p>
+ * <ul>
+ *   <li>{@code cursors}: the pickaxe cursors in {@code Cell.CURSOR_CACHE}</li>
+ *   <li>{@code skins}: the button skins of the cells and their text nodes</li>
+ *   <li>{@code css}: style class lists, inline styles, style helpers and the backgrounds and
+ *       borders resolved from CSS, including the style sheets and images they share</li>
+ *   <li>{@code cells}: the {@code Cell[][]} grid and the cells with their properties and
+ *       handlers</li>
+ *   <li>{@code enemies}: the enemy list, the bat swarm and the enemy stepper</li>
+ *   <li>{@code paths}: the path finder, the auto walker and the drag path queue</li>
+ *   <li>{@code fields}: light, gas and gravity</li>
+ *   <li>{@code history}: the rewind buffer, world journal and input recorder</li>
+ *   <li>{@code model}: everything else the game model holds</li>
+ * </ul>
+ *
+ * <p>Classes, enum constants and threads are never counted. Every subsystem is then fitted
+ * over all measured maps as a fixed size plus a size per tile, which gives the bytes per tile
+ * and the extrapolated footprint of larger maps, compared with the maximum heap.</p>
+ */
+public class HeapFootprintReport {
+
+	private static final String[] SUBSYSTEMS = {"cursors", "skins", "css", "cells", "enemies",
+			"paths", "fields", "history", "model"};
+
+	/**
+	 * Measures each requested map and prints the per-map tables and the extrapolation.
+	 *
+	 * @param args maps and options, see the class description
+	 * @throws Exception if a measurement is interrupted
+	 */
+	public static void main(String[] args) throws Exception {
+		List<Difficulty> difficulties = new ArrayList<>();
+		List<int[]> sizes = new ArrayList<>();
+		List<int[]> targets = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--extrapolate=")) {
+				for (String size : arg.substring("--extrapolate=".length()).split(",")) {
+					targets.add(parseSize(size));
+				}
+			} else if (arg.matches("\\d+x\\d+")) {
+				sizes.add(parseSize(arg));
+			} else {
+				difficulties.add(Difficulty.valueOf(arg.toUpperCase()));
+			}
+		}
+		if (difficulties.isEmpty() && sizes.isEmpty()) {
+			difficulties.addAll(List.of(Difficulty.values()));
+			sizes.add(new int[] {20, 250});
+			sizes.add(new int[] {20, 1000});
+		}
+		if (targets.isEmpty()) {
+			targets.add(new int[] {20, 5000});
+			targets.add(new int[] {100, 1000});
+			targets.add(new int[] {100, 10000});
+		}
+
+		HeadlessFx.start();
+		System.out.println(VM.current().details());
+		List<Footprint> footprints = new ArrayList<>();
+		for (Difficulty difficulty : difficulties) {
+			footprints.add(measure(difficulty.name(),
+					() -> new GameModel(HeadlessFx.CHARACTER, difficulty, HeadlessFx.SEED)));
+		}
+		for (int[] size : sizes) {
+			footprints.add(measure(size[0] + "x" + size[1],
+					() -> new GameModel(HeadlessFx.CHARACTER, Difficulty.EASY,
+							FrameTimeHarness.generateLayout(size[0], size[1], HeadlessFx.SEED),
+							HeadlessFx.SEED)));
+		}
+		for (Footprint footprint : footprints) {
+			footprint.print();
+		}
+		printExtrapolation(footprints, targets);
+		Platform.exit();
+	}
+
+	/**
+	 * Parses a map size written as {@code COLSxROWS}.
+	 */
+	private static int[] parseSize(String size) {
+		String[] parts = size.split("x");
+		return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+	}
+
+	// ========== MEASUREMENT ==========
+
+	/**
+	 * Creates a game, shows it until its first layout and measures it on the JavaFX
+	 * application thread.
+	 */
+	private static Footprint measure(String name, java.util.function.Supplier<GameModel> game)
+			throws InterruptedException {
+		Footprint[] result = new Footprint[1];
+		Stage[] stage = new Stage[1];
+		CountDownLatch done = new CountDownLatch(1);
+		Platform.runLater(() -> {
+			GameModel model = game.get();
+			model.setDeterministic(true);
+			Main main = new Main();
+			stage[0] = new Stage();
+			main.showGameScreen(stage[0], model);
+			Scene scene = stage[0].getScene();
+			boolean[] measured = new boolean[1];
+			scene.addPostLayoutPulseListener(() -> {
+				if (!measured[0]) {
+					// Skins are created in the first CSS pass, so measure once it is done
+					measured[0] = true;
+					main.gameLoop.stop();
+					try {
+						result[0] = new Footprint(name, model, main, stage[0]);
+					} finally {
+						done.countDown();
+					}
+				}
+			});
+			stage[0].show();
+		});
+		done.await();
+
+		CountDownLatch closed = new CountDownLatch(1);
+		Platform.runLater(() -> {
+			stage[0].close();
+			closed.countDown();
+		});
+		closed.await();
+		System.gc();
+		if (result[0] == null) {
+			throw new IllegalStateException("Measuring " + name + " failed");
+		}
+		return result[0];
+	}
+
+	/**
+	 * Sizes of the subsystems of one measured game.
+	 */
+	private static final class Footprint {
+		private final String name;
+		private final int tiles;
+		private final String size;
+		private final long[] bytes = new long[SUBSYSTEMS.length];
+		private final long[] objects = new long[SUBSYSTEMS.length];
+
+		/**
+		 * Walks the subsystems of a shown game, in the order of {@link #SUBSYSTEMS}.
+		 */
+		Footprint(String name, GameModel model, Main main, Stage stage) {
+			this.name = name;
+			Map map = model.getMap();
+			Cell[][] cells = map.getCells();
+			this.tiles = map.getRows() * map.getCols();
+			this.size = map.getCols() + "x" + map.getRows();
+
+			HeapWalker walker = new HeapWalker();
+			walker.stopAt(model, model.getMiner(), map, main, main.gameLoop, stage,
+					stage.getScene());
+			for (Parent parent = cells[0][0].getParent(); parent != null; parent = parent.getParent()) {
+				walker.stopAt(parent);
+			}
+
+			// Skins and CSS state point back at their cell, so the cells are shared until counted
+			List<Object> skins = new ArrayList<>();
+			List<Object> css = new ArrayList<>();
+			for (Cell[] row : cells) {
+				for (Cell cell : row) {
+					walker.stopAt(cell);
+					skins.add(cell.getSkin());
+					css.add(cell.getStyleClass());
+					css.add(cell.getStyle());
+					css.add(cell.getBackground());
+					css.add(cell.getBorder());
+					css.add(HeapWalker.fieldValue(cell, Node.class, "styleHelper"));
+				}
+			}
+			record(0, walker, HeapWalker.fieldValue(null, Cell.class, "CURSOR_CACHE"));
+			record(1, walker, skins.toArray());
+			record(2, walker, css.toArray());
+			for (Cell[] row : cells) {
+				for (Cell cell : row) {
+					walker.release(cell);
+				}
+			}
+			record(3, walker, cells);
+			record(4, walker, map.getEnemies(), map.getSwarm(), map.getNests(),
+					HeapWalker.fieldValue(model, GameModel.class, "enemyStepper"));
+			record(5, walker, map.getPathfinder(), model.getAutoWalker(),
+					HeapWalker.fieldValue(model, GameModel.class, "dragPath"));
+			record(6, walker, map.getLight(), map.getGasField(), map.getGravity());
+			record(7, walker, model.getRewind(), model.getJournal(), model.getRecorder());
+			walker.release(model);
+			walker.release(model.getMiner());
+			walker.release(map);
+			record(8, walker, model);
+		}
+
+		/**
+		 * Walks one subsystem and keeps its totals.
+		 */
+		private void record(int subsystem, HeapWalker walker, Object... roots) {
+			walker.walk(roots);
+			bytes[subsystem] = walker.getBytes();
+			objects[subsystem] = walker.getObjects();
+		}
+
+		/**
+		 * Gets the total size of all subsystems.
+		 */
+		long total() {
+			long total = 0;
+			for (long b : bytes) {
+				total += b;
+			}
+			return total;
+		}
+
+		/**
+		 * Prints one line per subsystem and the total.
+		 */
+		void print() {
+			System.out.printf("%n%s (%s, %d tiles)%n", name, size, tiles);
+			System.out.printf("  %-10s %10s %12s %10s%n", "subsystem", "objects", "bytes", "bytes/tile");
+			long totalObjects = 0;
+			for (int s = 0; s < SUBSYSTEMS.length; s++) {
+				System.out.printf("  %-10s %10d %12d %10.1f%n", SUBSYSTEMS[s], objects[s], bytes[s],
+						bytes[s] / (double) tiles);
+				totalObjects += objects[s];
+			}
+			System.out.printf("  %-10s %10d %12d %10.1f%n", "total", totalObjects, total(),
+					total() / (double) tiles);
+		}
+	}
+
+	// ========== EXTRAPOLATION ==========
+
+	/**
+	 * Fits each subsystem as a fixed size plus a size per tile over the measured maps, then
+	 * prints the fit and the predicted footprint of the target map sizes.
+	 */
+	private static void printExtrapolation(List<Footprint> footprints, List<int[]> targets) {
+		int n = footprints.size();
+		double meanTiles = 0;
+		for (Footprint footprint : footprints) {
+			meanTiles += footprint.tiles / (double) n;
+		}
+		double variance = 0;
+		for (Footprint footprint : footprints) {
+			variance += (footprint.tiles - meanTiles) * (footprint.tiles - meanTiles);
+		}
+		if (variance == 0) {
+			System.out.println("\nExtrapolation needs maps of at least two sizes");
+			return;
+		}
+
+		double fixedTotal = 0;
+		double perTileTotal = 0;
+		System.out.printf("%nFit over %d maps%n", n);
+		System.out.printf("  %-10s %12s %10s%n", "subsystem", "fixed bytes", "bytes/tile");
+		for (int s = 0; s < SUBSYSTEMS.length; s++) {
+			double meanBytes = 0;
+			for (Footprint footprint : footprints) {
+				meanBytes += footprint.bytes[s] / (double) n;
+			}
+			double covariance = 0;
+			for (Footprint footprint : footprints) {
+				covariance += (footprint.tiles - meanTiles) * (footprint.bytes[s] - meanBytes);
+			}
+			double perTile = covariance / variance;
+			double fixed = meanBytes - perTile * meanTiles;
+			System.out.printf("  %-10s %12.0f %10.1f%n", SUBSYSTEMS[s], fixed, perTile);
+			fixedTotal += fixed;
+			perTileTotal += perTile;
+		}
+		System.out.printf("  %-10s %12.0f %10.1f%n", "total", fixedTotal, perTileTotal);
+
+		long maxHeap = Runtime.getRuntime().maxMemory();
+		System.out.printf("%nExtrapolated (max heap %d MB, fits up to about %d tiles)%n",
+				maxHeap >> 20, (long) ((maxHeap - fixedTotal) / perTileTotal));
+		System.out.printf("  %-12s %12s %10s%n", "map", "tiles", "MB");
+		for (int[] target : targets) {
+			long tiles = (long) target[0] * target[1];
+			System.out.printf("  %-12s %12d %10.1f%n", target[0] + "x" + target[1], tiles,
+					(fixedTotal + perTileTotal * tiles) / (1 << 20));
+		}
+	}
+
+	// ========== HEAP WALK ==========
+
+	/**
+	 * Walks object graphs and sums their sizes, counting every object at most once across walks.
+	 */
+	private static final class HeapWalker {
+
+		// Reference fields of each class, including inherited ones
+		private static final ClassValue<Field[]> REFERENCE_FIELDS = new ClassValue<>() {
+			@Override
+			protected Field[] computeValue(Class<?> type) {
+				List<Field> fields = new ArrayList<>();
+				for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+					for (Field field : c.getDeclaredFields()) {
+						if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+							fields.add(field);
+						}
+					}
+				}
+				return fields.toArray(new Field[0]);
+			}
+		};
+
+		private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		private final Set<Object> stops = Collections.newSetFromMap(new IdentityHashMap<>());
+		private final ArrayDeque<Object> pending = new ArrayDeque<>();
+		private long bytes;
+		private long objects;
+
+		/**
+		 * Marks objects as shared, so walks neither count them nor go through them.
+		 */
+		void stopAt(Object... shared) {
+			Collections.addAll(stops, shared);
+		}
+
+		/**
+		 * Lets later walks count and go through an object marked as shared.
+		 */
+		void release(Object shared) {
+			stops.remove(shared);
+		}
+
+		/**
+		 * Counts every object reachable from the roots that no earlier walk counted.
+		 */
+		void walk(Object... roots) {
+			bytes = 0;
+			objects = 0;
+			for (Object root : roots) {
+				push(root);
+			}
+			Object o;
+			while ((o = pending.poll()) != null) {
+				bytes += sizeOf(o);
+				objects++;
+				Class<?> type = o.getClass();
+				if (type.isArray()) {
+					if (!type.getComponentType().isPrimitive()) {
+						for (int i = 0, length = Array.getLength(o); i < length; i++) {
+							push(Array.get(o, i));
+						}
+					}
+				} else {
+					for (Field field : REFERENCE_FIELDS.get(type)) {
+						push(read(o, field));
+					}
+				}
+			}
+		}
+
+		/**
+		 * Gets the shallow size of an object. JOL cannot lay out the hidden classes of lambdas,
+		 * so those are sized as a header plus their captured references, as the VM lays them out.
+		 */
+		private static long sizeOf(Object o) {
+			Class<?> type = o.getClass();
+			if (!type.isHidden()) {
+				return VM.current().sizeOf(o);
+			}
+			long size = VM.current().objectHeaderSize();
+			for (Field field : type.getDeclaredFields()) {
+				size += field.getType().isPrimitive() ? VM.current().sizeOfField(field.getType().getName())
+						: VM.current().addressSize();
+			}
+			return (size + VM.current().objectAlignment() - 1) & -VM.current().objectAlignment();
+		}
+
+		/**
+		 * Reads a reference field, by reflection for the hidden classes of lambdas.
+		 */
+		private static Object read(Object o, Field field) {
+			if (!o.getClass().isHidden()) {
+				return ObjectUtils.value(o, field);
+			}
+			try {
+				field.setAccessible(true);
+				return field.get(o);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * Queues an object unless it is shared, global or already counted.
+		 */
+		private void push(Object o) {
+			if (o == null || stops.contains(o) || o instanceof Class || o instanceof Enum
+					|| o instanceof Thread || o instanceof ClassLoader || o instanceof Scene
+					|| o instanceof Window || o instanceof Application) {
+				return;
+			}
+			if (seen.add(o)) {
+				pending.add(o);
+			}
+		}
+
+		/**
+		 * Gets the bytes counted by the last walk.
+		 */
+		long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * Gets the number of objects counted by the last walk.
+		 */
+		long getObjects() {
+			return objects;
+		}
+
+		/**
+		 * Reads a field that the game or JavaFX does not expose, or null if it does not exist.
+		 *
+		 * @param owner the object holding the field, or null for a static field
+		 */
+		static Object fieldValue(Object owner, Class<?> type, String name) {
+			try {
+				Field field = type.getDeclaredField(name);
+				if (owner == null) {
+					field.setAccessible(true);
+					return field.get(null);
+				}
+				return ObjectUtils.value(owner, field);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building a {@link Map} for each difficulty: the cells, enemies and every grid-level
+ * system (pathfinder, gravity, gas, light and swarm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapBenchmark {
+
+	@Param({"EASY", "MEDIUM", "HARD"})
+	public Difficulty difficulty;
+
+	private GameModel model;
+
+	/**
+	 * Creates the game the maps are built for.
+	 */
+	@Setup
+	public void setup() {
+		model = HeadlessFx.newGame(difficulty);
+	}
+
+	/**
+	 * Builds a map from the difficulty layout.
+	 *
+	 * @return the map, so the work is not eliminated
+	 */
+	@Benchmark
+	public Map construct() {
+		Miner miner = new Miner(4, 3, HeadlessFx.CHARACTER);
+		return new Map(miner, model, difficulty, new GameRandom(HeadlessFx.SEED));
+	}
+}
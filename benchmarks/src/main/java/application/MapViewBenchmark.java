@@ -0,0 +1,73 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
+
+/**
+ * Measures the fog of war and the per-frame restyling done by {@link MapView}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapViewBenchmark {
+
+	@Param({"EASY", "MEDIUM", "HARD"})
+	public Difficulty difficulty;
+
+	private GameModel model;
+	private MapView view;
+	private boolean right;
+
+	/**
+	 * Creates a game and its view on a grid that is not shown.
+	 */
+	@Setup
+	public void setup() {
+		model = HeadlessFx.newGame(difficulty);
+		view = new MapView(new GridPane(), new Pane(), model);
+	}
+
+	/**
+	 * Steps the miner back and forth along the surface and updates the fog, so every call
+	 * has light changes to apply.
+	 */
+	@Benchmark
+	public void revealAfterMove() {
+		model.moveMiner(right ? GameModel.Direction.RIGHT : GameModel.Direction.LEFT);
+		right = !right;
+		view.revealAroundMiner();
+	}
+
+	/**
+	 * Updates the fog when nothing has changed.
+	 */
+	@Benchmark
+	public void revealIdle() {
+		view.revealAroundMiner();
+	}
+
+	/**
+	 * Restyles every cell of the map.
+	 */
+	@Benchmark
+	public void updateView() {
+		view.updateView();
+	}
+}
@@ -0,0 +1,287 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how fast independent headless games simulate, and how that scales with threads.
+ *
+ * <p>Usage: {@code ThroughputHarness [--games=K] [--threads=T,...] [--max-ticks=N]
+ * [--warmup=N] [--repeat=N] [--policy=scripted|random] [DIFFICULTY ...]}, by default 32 games
+ * per run of at most 6000 ticks each (five minutes of game time), on 1, 2, 4 and so on up to
+ * every available processor, with both policies over every difficulty in turn. Each game is
+ * built from its own seed and ticked as fast as possible, with an action of its policy every
+ * {@value #ACTION_TICKS} ticks, until it is over or reaches the tick limit. Building the game is
+ * part of the measured time.</p>
+ * <ul>
+ *   <li>{@code scripted}: the {@link FrameTimeHarness} script, mining down and right</li>
+ *   <li>{@code random}: a move or a pickaxe hit in a random direction, from a random stream
+ *       seeded per game</li>
+ * </ul>
+ *
+ * <p>Each thread count is run three times and the fastest run prints the simulated ticks and
+ * games per second, the speedup over the first thread count scaled to one thread, and the
+ * parallel efficiency. Games share no state, so throughput should grow linearly up to the
+ * number of cores; a falling efficiency points at shared static state on the tick path. Every
+ * game also leaves a fingerprint of its final state, which must be the same at every thread
+ * count: a game that ends differently when others run beside it reads or writes state that is
+ * not its own. Such runs are reported as mismatches and make the process exit with status 1.
+ * Ten warm-up runs on all threads come first, as the throughput keeps rising for about that
+ * long while the JIT compiles the game and the heap settles. Game messages below warnings are
+ * not logged, as every game logs its keys.</p>
+ *
+ * <p>The static state the games still share on the tick path is the diagnostics: the
+ * {@link PerfCounters} counters, which are striped adders, and the {@code TICK_TIME} histogram,
+ * whose bucket takes one atomic increment per tick from every thread. Key codes come from each
+ * game's own random stream, and {@code Cell.CURSOR_CACHE} is only used by mouse hovers on the
+ * JavaFX thread, so neither is reached here.</p>
+ */
+public class ThroughputHarness {
+
+	private static final int ACTION_TICKS = 5;
+
+	/**
+	 * Action policy of a simulated player.
+	 */
+	private enum Policy {
+		SCRIPTED, RANDOM
+	}
+
+	/**
+	 * Runs every policy at each thread count and prints one line per run.
+	 *
+	 * @param args options and difficulties, see the class description
+	 * @throws Exception if a game fails or the run is interrupted
+	 */
+	public static void main(String[] args) throws Exception {
+		int games = 32;
+		int maxTicks = 6000;
+		int warmup = 10;
+		int repeat = 3;
+		List<Integer> threadCounts = new ArrayList<>();
+		List<Policy> policies = new ArrayList<>();
+		List<Difficulty> difficulties = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--games=")) {
+				games = Integer.parseInt(arg.substring("--games=".length()));
+			} else if (arg.startsWith("--max-ticks=")) {
+				maxTicks = Integer.parseInt(arg.substring("--max-ticks=".length()));
+			} else if (arg.startsWith("--warmup=")) {
+				warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+			} else if (arg.startsWith("--repeat=")) {
+				repeat = Integer.parseInt(arg.substring("--repeat=".length()));
+			} else if (arg.startsWith("--threads=")) {
+				for (String count : arg.substring("--threads=".length()).split(",")) {
+					threadCounts.add(Integer.parseInt(count));
+				}
+			} else if (arg.startsWith("--policy=")) {
+				policies.add(Policy.valueOf(arg.substring("--policy=".length()).toUpperCase()));
+			} else {
+				difficulties.add(Difficulty.valueOf(arg.toUpperCase()));
+			}
+		}
+		if (threadCounts.isEmpty()) {
+			int cores = Runtime.getRuntime().availableProcessors();
+			for (int threads = 1; threads < cores; threads *= 2) {
+				threadCounts.add(threads);
+			}
+			threadCounts.add(cores);
+		}
+		if (policies.isEmpty()) {
+			policies.addAll(List.of(Policy.values()));
+		}
+		if (difficulties.isEmpty()) {
+			difficulties.addAll(List.of(Difficulty.values()));
+		}
+
+		HeadlessFx.start();
+		for (GameLog.Category category : GameLog.Category.values()) {
+			GameLog.setLevel(category, GameLog.Level.WARN);
+		}
+		int maxThreads = threadCounts.stream().mapToInt(Integer::intValue).max().getAsInt();
+		System.out.printf("%d processors, %d games per run, at most %d ticks per game%n",
+				Runtime.getRuntime().availableProcessors(), games, maxTicks);
+		boolean mismatch = false;
+		for (Policy policy : policies) {
+			Batch batch = new Batch(policy, difficulties, games, maxTicks);
+			for (int i = 0; i < warmup; i++) {
+				batch.run(maxThreads);
+			}
+			long[] reference = null;
+			double baseline = 0;
+			System.out.printf("%n%-8s %7s %10s %12s %10s %8s %10s %10s%n", "policy", "threads",
+					"seconds", "ticks/s", "games/s", "speedup", "efficiency", "mismatches");
+			for (int threads : threadCounts) {
+				long nanos = Long.MAX_VALUE;
+				int mismatches = 0;
+				for (int i = 0; i < repeat; i++) {
+					nanos = Math.min(nanos, batch.run(threads));
+					if (reference == null) {
+						reference = batch.getFingerprints();
+					}
+					mismatches += batch.countMismatches(reference);
+				}
+				double seconds = nanos / 1e9;
+				double ticksPerSecond = batch.getTicks() / seconds;
+				if (baseline == 0) {
+					baseline = ticksPerSecond / threads;
+				}
+				mismatch |= mismatches > 0;
+				double speedup = ticksPerSecond / baseline;
+				System.out.printf("%-8s %7d %10.2f %12.0f %10.1f %8.2f %9.0f%% %10d%n",
+						policy.name().toLowerCase(), threads, seconds, ticksPerSecond,
+						games / seconds, speedup, 100 * speedup / threads, mismatches);
+			}
+		}
+		System.exit(mismatch ? 1 : 0);
+	}
+
+	/**
+	 * A fixed set of games, played again for each thread count.
+	 */
+	private static final class Batch {
+		private final Policy policy;
+		private final List<Difficulty> difficulties;
+		private final int maxTicks;
+		private final long[] fingerprints;
+		private final AtomicLong ticks = new AtomicLong();
+
+		Batch(Policy policy, List<Difficulty> difficulties, int games, int maxTicks) {
+			this.policy = policy;
+			this.difficulties = difficulties;
+			this.maxTicks = maxTicks;
+			this.fingerprints = new long[games];
+		}
+
+		/**
+		 * Plays all games on a pool of the given size.
+		 *
+		 * @return the wall-clock time in nanoseconds
+		 */
+		long run(int threads) throws Exception {
+			ticks.set(0);
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<?>> results = new ArrayList<>();
+				long start = System.nanoTime();
+				for (int game = 0; game < fingerprints.length; game++) {
+					int index = game;
+					results.add(pool.submit(() -> play(index)));
+				}
+				for (Future<?> result : results) {
+					result.get();
+				}
+				return System.nanoTime() - start;
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		/**
+		 * Plays one game to its end or the tick limit and keeps its fingerprint.
+		 */
+		private void play(int index) {
+			long seed = HeadlessFx.SEED + index;
+			Difficulty difficulty = difficulties.get(index % difficulties.size());
+			GameModel model = new GameModel(HeadlessFx.CHARACTER, difficulty, seed);
+			model.setDeterministic(true);
+			SplittableRandom random = new SplittableRandom(seed);
+			int step = 0;
+			while (!model.isGameOver() && model.getTickCount() < maxTicks) {
+				if (model.getTickCount() % ACTION_TICKS == 0) {
+					if (policy == Policy.SCRIPTED) {
+						playScripted(model, step++);
+					} else {
+						playRandom(model, random);
+					}
+				}
+				model.tick();
+			}
+			ticks.addAndGet(model.getTickCount());
+
+			Miner miner = model.getMiner();
+			long fingerprint = model.getTickCount();
+			fingerprint = 31 * fingerprint + miner.getRow();
+			fingerprint = 31 * fingerprint + miner.getCol();
+			fingerprint = 31 * fingerprint + miner.getGoldAmount();
+			fingerprint = 31 * fingerprint + miner.getOxygen();
+			fingerprint = 31 * fingerprint + model.getKeysCollected();
+			fingerprint = 31 * fingerprint + (model.isGameWon() ? 1 : 0);
+			fingerprints[index] = fingerprint;
+		}
+
+		/**
+		 * Plays the next step of the script: mine the block below three times, step down,
+		 * mine the block to the right three times, step right.
+		 */
+		private static void playScripted(GameModel model, int step) {
+			Miner miner = model.getMiner();
+			switch (step % 8) {
+				case 0, 1, 2 -> mine(model, miner.getRow() + 1, miner.getCol());
+				case 3 -> model.moveMiner(GameModel.Direction.DOWN);
+				case 4, 5, 6 -> mine(model, miner.getRow(), miner.getCol() + 1);
+				default -> model.moveMiner(GameModel.Direction.RIGHT);
+			}
+		}
+
+		/**
+		 * Moves or mines in a random direction.
+		 */
+		private static void playRandom(GameModel model, SplittableRandom random) {
+			GameModel.Direction direction = GameModel.Direction.values()[random.nextInt(4)];
+			if (random.nextBoolean()) {
+				model.moveMiner(direction);
+				return;
+			}
+			Miner miner = model.getMiner();
+			switch (direction) {
+				case UP -> mine(model, miner.getRow() - 1, miner.getCol());
+				case DOWN -> mine(model, miner.getRow() + 1, miner.getCol());
+				case LEFT -> mine(model, miner.getRow(), miner.getCol() - 1);
+				default -> mine(model, miner.getRow(), miner.getCol() + 1);
+			}
+		}
+
+		/**
+		 * Mines a cell if it is on the map.
+		 */
+		private static void mine(GameModel model, int row, int col) {
+			Map map = model.getMap();
+			if (row >= 0 && row < map.getRows() && col >= 0 && col < map.getCols()) {
+				model.mineCell(row, col);
+			}
+		}
+
+		/**
+		 * Gets the ticks played by the last run.
+		 */
+		long getTicks() {
+			return ticks.get();
+		}
+
+		/**
+		 * Gets a copy of the fingerprints left by the last run.
+		 */
+		long[] getFingerprints() {
+			return fingerprints.clone();
+		}
+
+		/**
+		 * Counts the games of the last run that ended differently from the reference.
+		 */
+		int countMismatches(long[] reference) {
+			int mismatches = 0;
+			for (int i = 0; i < reference.length; i++) {
+				if (fingerprints[i] != reference[i]) {
+					mismatches++;
+				}
+			}
+			return mismatches;
+		}
+	}
+}
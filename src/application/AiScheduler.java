@@ -0,0 +1,150 @@
+package application;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Spreads enemy decision making over game ticks within a fixed time budget.
+ *
+ * <p>Each tick, enemies close to the miner think first, since their decisions are the ones
+ * the player notices. The remaining time is spent on the other enemies in round-robin order,
+ * resuming where the previous tick stopped. Once the budget is used up, the rest simply keep
+ * their last decision until their turn comes, so a spike in the enemy count makes far-away
+ * enemies react more slowly instead of making the frame late.</p>
+ *
+ * <p>Every enemy records the tick it last thought at (see {@link Enemy#getLastThinkTick()}),
+ * which also keeps nearby enemies from thinking more often than
+ * {@value #NEAR_THINK_INTERVAL} ticks apart.</p>
+ *
+ * <p>In deterministic mode a think quota replaces the time budget: the same number of enemies
+ * think every tick whatever the machine's speed, so seeded runs can be replayed exactly.</p>
+ */
+public class AiScheduler {
+
+	/** Default time budget per tick in microseconds. */
+	public static final int DEFAULT_BUDGET_MICROS = 250;
+
+	/** Thinks per tick used in deterministic mode. */
+	public static final int DEFAULT_THINK_QUOTA = 64;
+
+	/** Enemies within this distance of the miner are handled first. */
+	private static final int NEAR_RADIUS = 8;
+
+	/** Minimum number of ticks between two thinks of a nearby enemy. */
+	private static final int NEAR_THINK_INTERVAL = 2;
+
+	private final Enemy[] enemies;
+	private final SplittableRandom random;
+
+	private long budgetNanos;
+	private int thinkQuota = 0;
+	private int cursor = 0;
+	private int thinksLastTick = 0;
+
+	/**
+	 * Constructs a new AiScheduler for the given enemies.
+	 *
+	 * @param enemies the enemies to schedule
+	 * @param random the random source handed to enemy decisions
+	 */
+	public AiScheduler(List<Enemy> enemies, SplittableRandom random) {
+		this.enemies = enemies.toArray(new Enemy[0]);
+		this.random = random;
+		setBudgetMicros(DEFAULT_BUDGET_MICROS);
+	}
+
+	/**
+	 * Lets as many enemies think as fit into this tick's budget, or as the think quota allows
+	 * in deterministic mode.
+	 *
+	 * @param tick the current game tick
+	 */
+	public void update(long tick) {
+		long deadline = thinkQuota > 0 ? Long.MAX_VALUE : System.nanoTime() + budgetNanos;
+		int thinks = 0;
+
+		// Nearby enemies first
+		for (Enemy enemy : enemies) {
+			if (enemy.distanceToPlayer() <= NEAR_RADIUS
+					&& tick - enemy.getLastThinkTick() >= NEAR_THINK_INTERVAL) {
+				enemy.think(tick, random);
+				thinks++;
+				if (isExhausted(thinks, deadline)) {
+					thinksLastTick = thinks;
+					return;
+				}
+			}
+		}
+
+		// Round-robin over the far ones with whatever time is left
+		for (int visited = 0; visited < enemies.length; visited++) {
+			Enemy enemy = enemies[cursor];
+			cursor = (cursor + 1) % enemies.length;
+			if (enemy.distanceToPlayer() <= NEAR_RADIUS || enemy.getLastThinkTick() == tick) {
+				continue;
+			}
+			enemy.think(tick, random);
+			thinks++;
+			if (isExhausted(thinks, deadline)) {
+				break;
+			}
+		}
+		thinksLastTick = thinks;
+	}
+
+	/**
+	 * Checks if this tick's quota or time budget has been used up.
+	 */
+	private boolean isExhausted(int thinks, long deadline) {
+		if (thinkQuota > 0) {
+			return thinks >= thinkQuota;
+		}
+		return System.nanoTime() >= deadline;
+	}
+
+	/**
+	 * Sets a fixed number of thinks per tick, replacing the time budget. A quota of 0
+	 * switches back to the time budget.
+	 *
+	 * @param quota the thinks allowed per tick, or 0 to use the time budget
+	 */
+	public void setThinkQuota(int quota) {
+		this.thinkQuota = Math.max(0, quota);
+	}
+
+	/**
+	 * Gets the number of thinks allowed per tick in deterministic mode.
+	 *
+	 * @return the think quota, or 0 when the time budget applies
+	 */
+	public int getThinkQuota() {
+		return thinkQuota;
+	}
+
+	/**
+	 * Sets the time budget per tick.
+	 *
+	 * @param micros the budget in microseconds
+	 */
+	public void setBudgetMicros(int micros) {
+		this.budgetNanos = micros * 1_000L;
+	}
+
+	/**
+	 * Gets the time budget per tick.
+	 *
+	 * @return the budget in microseconds
+	 */
+	public int getBudgetMicros() {
+		return (int) (budgetNanos / 1_000L);
+	}
+
+	/**
+	 * Gets the number of enemies that thought during the last update.
+	 *
+	 * @return the think count of the last tick
+	 */
+	public int getThinksLastTick() {
+		return thinksLastTick;
+	}
+}
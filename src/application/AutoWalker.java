@@ -0,0 +1,164 @@
+package application;
+
+/**
+ * Walks the miner along a path one cell at a time, driven by the game tick.
+ *
+ * <p>The path is held in a reusable buffer of packed cell indices ({@code row * cols + col}),
+ * so starting, replacing or cancelling a walk does not allocate. The walker takes one step
+ * every {@link #getStepTicks()} ticks and stops as soon as the next step is blocked, remembering
+ * whether an enemy was in the way so the caller can react instead of losing the step.</p>
+ */
+public class AutoWalker {
+
+	/** Default delay between two steps, matching the old 200 ms pause between moves. */
+	public static final int DEFAULT_STEP_MILLIS = 200;
+
+	private final GameModel model;
+	private final int cols;
+
+	// Path buffer
+	private int[] path = new int[64];
+	private int head = 0;
+	private int length = 0;
+
+	// Timing
+	private int stepTicks;
+	private int ticksSinceStep = 0;
+
+	/**
+	 * Constructs a new AutoWalker for the given game model.
+	 *
+	 * @param model the game model used to move the miner
+	 * @param cols the number of map columns, used to unpack cell indices
+	 */
+	public AutoWalker(GameModel model, int cols) {
+		this.model = model;
+		this.cols = cols;
+		setStepMillis(DEFAULT_STEP_MILLIS);
+	}
+
+	/**
+	 * Replaces the current walk with a new path, which may also happen mid-walk.
+	 * Cells equal to the miner's position at the start of the path are skipped.
+	 *
+	 * @param cells packed cell indices to visit in order
+	 * @param offset the index of the first cell to use
+	 * @param count the number of cells to use
+	 */
+	public void setPath(int[] cells, int offset, int count) {
+		if (count > path.length) {
+			path = new int[Math.max(count, path.length * 2)];
+		}
+		System.arraycopy(cells, offset, path, 0, count);
+		head = 0;
+		length = count;
+
+		// Take the first step on the next tick
+		ticksSinceStep = stepTicks - 1;
+	}
+
+	/**
+	 * Stops the current walk. The remaining steps are discarded.
+	 */
+	public void cancel() {
+		head = 0;
+		length = 0;
+	}
+
+	/**
+	 * Checks if the walker still has steps to take.
+	 *
+	 * @return true if a walk is in progress, false otherwise
+	 */
+	public boolean isWalking() {
+		return head < length;
+	}
+
+	/**
+	 * Gets the number of ticks between two steps.
+	 *
+	 * @return the step interval in ticks
+	 */
+	public int getStepTicks() {
+		return stepTicks;
+	}
+
+	/**
+	 * Sets the number of ticks between two steps.
+	 *
+	 * @param ticks the step interval in ticks (at least 1)
+	 */
+	public void setStepTicks(int ticks) {
+		this.stepTicks = Math.max(1, ticks);
+	}
+
+	/**
+	 * Sets the delay between two steps in milliseconds, rounded to whole ticks.
+	 *
+	 * @param millis the step interval in milliseconds
+	 */
+	public void setStepMillis(int millis) {
+		setStepTicks(Math.round(millis / (float) GameModel.TICK_MILLIS));
+	}
+
+	/**
+	 * Advances the walk by one game tick.
+	 *
+	 * @return true if the miner moved during this tick, false otherwise
+	 */
+	public boolean tick() {
+		if (head >= length) {
+			return false;
+		}
+		if (++ticksSinceStep < stepTicks) {
+			return false;
+		}
+		ticksSinceStep = 0;
+
+		Miner miner = model.getMiner();
+		int row = miner.getRow();
+		int col = miner.getCol();
+
+		// Skip path cells the miner is already standing on
+		while (head < length && path[head] == row * cols + col) {
+			head++;
+		}
+		if (head >= length) {
+			return false;
+		}
+
+		int next = path[head];
+		GameModel.Direction direction = model.getDirection(row, col, next / cols, next % cols);
+		GameEvents.PathStep event = new GameEvents.PathStep();
+		event.begin();
+		if (model.isStepBlockedByEnemy(direction)) {
+			cancel();
+			commitStep(event, miner, true);
+			return false;
+		}
+		if (!model.stepMiner(direction)) {
+			cancel();
+			commitStep(event, miner, true);
+			return false;
+		}
+
+		if (miner.getRow() * cols + miner.getCol() == next) {
+			head++;
+		}
+		commitStep(event, miner, false);
+		return true;
+	}
+
+	/**
+	 * Completes the flight recorder event of a path step, if it is enabled.
+	 */
+	private void commitStep(GameEvents.PathStep event, Miner miner, boolean blocked) {
+		if (event.shouldCommit()) {
+			event.row = miner.getRow();
+			event.col = miner.getCol();
+			event.remaining = length - head;
+			event.blocked = blocked;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,255 @@
+package application;
+
+import java.util.SplittableRandom;
+
+/**
+ * A flock of small bats that move freely within open tiles using boids-style steering.
+ *
+ * <p>Unlike {@link Enemy}, swarm bats are not tied to a cell: each has a sub-tile position
+ * and velocity, measured in tiles and tiles per second. Every tick, each bat steers by three
+ * rules over its neighbours within {@value #NEIGHBOUR_RADIUS} tiles:
+ * <ul>
+ *   <li><strong>Separation:</strong> move away from bats that are too close</li>
+ *   <li><strong>Alignment:</strong> match the average heading of the neighbours</li>
+ *   <li><strong>Cohesion:</strong> move towards the neighbours' centre</li>
+ * </ul>
+ * Bats bounce off solid tiles and hurt the miner when they fly through its cell.</p>
+ *
+ * <p>State is stored as parallel float arrays, and neighbour queries go through a
+ * {@link SpatialHashGrid} rebuilt every tick, so an update does not allocate. New velocities
+ * are written to separate arrays and swapped in after all bats have steered, so the result does
+ * not depend on update order.</p>
+ */
+public class BatSwarm {
+
+	/** Number of bats released by one swarm nest. */
+	public static final int BATS_PER_NEST = 12;
+
+	/** Radius in tiles within which bats influence each other. */
+	private static final float NEIGHBOUR_RADIUS = 1.5f;
+
+	/** Distance in tiles below which bats push each other apart. */
+	private static final float SEPARATION_RADIUS = 0.4f;
+
+	// Steering weights
+	private static final float SEPARATION_WEIGHT = 1.5f;
+	private static final float ALIGNMENT_WEIGHT = 1.0f;
+	private static final float COHESION_WEIGHT = 0.8f;
+
+	// Speed limits in tiles per second
+	private static final float MIN_SPEED = 0.5f;
+	private static final float MAX_SPEED = 2.5f;
+
+	/** Damage dealt to the miner by a bat passing through its cell. */
+	private static final int DAMAGE = 2;
+
+	private final Map map;
+	private final Miner miner;
+	private final int count;
+
+	// Bat state
+	private final float[] x;
+	private final float[] y;
+	private float[] vx;
+	private float[] vy;
+	private float[] nextVx;
+	private float[] nextVy;
+	private final int[] cooldown;
+
+	private final SpatialHashGrid grid;
+
+	/**
+	 * Constructs a swarm with {@value #BATS_PER_NEST} bats around each nest cell.
+	 *
+	 * @param map the map the bats fly through
+	 * @param miner the miner the bats can hurt
+	 * @param nests packed cell indices ({@code row * cols + col}) of the nests
+	 * @param random the random source for initial headings
+	 */
+	public BatSwarm(Map map, Miner miner, int[] nests, SplittableRandom random) {
+		this.map = map;
+		this.miner = miner;
+		this.count = nests.length * BATS_PER_NEST;
+
+		x = new float[count];
+		y = new float[count];
+		vx = new float[count];
+		vy = new float[count];
+		nextVx = new float[count];
+		nextVy = new float[count];
+		cooldown = new int[count];
+
+		int cols = map.getCols();
+		for (int i = 0; i < count; i++) {
+			int nest = nests[i / BATS_PER_NEST];
+			x[i] = nest % cols + 0.2f + 0.6f * (float) random.nextDouble();
+			y[i] = nest / cols + 0.2f + 0.6f * (float) random.nextDouble();
+			double angle = random.nextDouble() * 2 * Math.PI;
+			vx[i] = (float) Math.cos(angle) * MIN_SPEED;
+			vy[i] = (float) Math.sin(angle) * MIN_SPEED;
+		}
+
+		grid = new SpatialHashGrid(cols, map.getRows(), NEIGHBOUR_RADIUS, count);
+	}
+
+	/**
+	 * Advances the swarm by one tick.
+	 *
+	 * @param dt the tick duration in seconds
+	 */
+	public void update(float dt) {
+		if (count == 0) {
+			return;
+		}
+		grid.rebuild(x, y, count);
+
+		for (int i = 0; i < count; i++) {
+			steer(i, dt);
+		}
+
+		float[] swap = vx;
+		vx = nextVx;
+		nextVx = swap;
+		swap = vy;
+		vy = nextVy;
+		nextVy = swap;
+
+		Cell[][] cells = map.getCells();
+		for (int i = 0; i < count; i++) {
+			move(i, dt, cells);
+		}
+	}
+
+	/**
+	 * Applies separation, alignment and cohesion to one bat and writes its new velocity.
+	 */
+	private void steer(int i, float dt) {
+		float px = x[i];
+		float py = y[i];
+		float sepX = 0, sepY = 0;
+		float sumVx = 0, sumVy = 0;
+		float sumX = 0, sumY = 0;
+		int neighbours = 0;
+		float radius2 = NEIGHBOUR_RADIUS * NEIGHBOUR_RADIUS;
+
+		int bc = grid.bucketCol(px);
+		int br = grid.bucketRow(py);
+		for (int r = br - 1; r <= br + 1; r++) {
+			for (int c = bc - 1; c <= bc + 1; c++) {
+				int bucket = grid.bucketIndex(c, r);
+				if (bucket < 0) {
+					continue;
+				}
+				for (int k = grid.bucketStart(bucket); k < grid.bucketEnd(bucket); k++) {
+					int j = grid.entry(k);
+					if (j == i) {
+						continue;
+					}
+					float dx = x[j] - px;
+					float dy = y[j] - py;
+					float d2 = dx * dx + dy * dy;
+					if (d2 > radius2) {
+						continue;
+					}
+					neighbours++;
+					sumVx += vx[j];
+					sumVy += vy[j];
+					sumX += x[j];
+					sumY += y[j];
+					if (d2 < SEPARATION_RADIUS * SEPARATION_RADIUS && d2 > 1e-6f) {
+						sepX -= dx / d2;
+						sepY -= dy / d2;
+					}
+				}
+			}
+		}
+
+		float ax = 0;
+		float ay = 0;
+		if (neighbours > 0) {
+			ax += SEPARATION_WEIGHT * sepX
+					+ ALIGNMENT_WEIGHT * (sumVx / neighbours - vx[i])
+					+ COHESION_WEIGHT * (sumX / neighbours - px);
+			ay += SEPARATION_WEIGHT * sepY
+					+ ALIGNMENT_WEIGHT * (sumVy / neighbours - vy[i])
+					+ COHESION_WEIGHT * (sumY / neighbours - py);
+		}
+
+		float nvx = vx[i] + ax * dt;
+		float nvy = vy[i] + ay * dt;
+		float speed = (float) Math.sqrt(nvx * nvx + nvy * nvy);
+		if (speed > MAX_SPEED) {
+			nvx *= MAX_SPEED / speed;
+			nvy *= MAX_SPEED / speed;
+		} else if (speed < MIN_SPEED && speed > 1e-6f) {
+			nvx *= MIN_SPEED / speed;
+			nvy *= MIN_SPEED / speed;
+		}
+		nextVx[i] = nvx;
+		nextVy[i] = nvy;
+	}
+
+	/**
+	 * Integrates one bat's position, bouncing off solid tiles, and checks for miner contact.
+	 */
+	private void move(int i, float dt, Cell[][] cells) {
+		float nx = x[i] + vx[i] * dt;
+		float ny = y[i] + vy[i] * dt;
+
+		if (!isOpen(cells, nx, y[i])) {
+			vx[i] = -vx[i];
+			nx = x[i];
+		}
+		if (!isOpen(cells, nx, ny)) {
+			vy[i] = -vy[i];
+			ny = y[i];
+		}
+		x[i] = nx;
+		y[i] = ny;
+
+		if (cooldown[i] > 0) {
+			cooldown[i]--;
+		} else if ((int) nx == miner.getCol() && (int) ny == miner.getRow()) {
+			miner.hurt(DAMAGE);
+			cooldown[i] = GameModel.TICKS_PER_SECOND;
+		}
+	}
+
+	private boolean isOpen(Cell[][] cells, float px, float py) {
+		if (px < 0 || py < 0 || px >= map.getCols() || py >= map.getRows()) {
+			return false;
+		}
+		return cells[(int) py][(int) px].isWalkable();
+	}
+
+	// ========== GETTER METHODS ==========
+
+	/**
+	 * Gets the number of bats in the swarm.
+	 *
+	 * @return the bat count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the x coordinate (column, in tiles) of a bat.
+	 *
+	 * @param i the bat index
+	 * @return the x coordinate
+	 */
+	public float getX(int i) {
+		return x[i];
+	}
+
+	/**
+	 * Gets the y coordinate (row, in tiles) of a bat.
+	 *
+	 * @param i the bat index
+	 * @return the y coordinate
+	 */
+	public float getY(int i) {
+		return y[i];
+	}
+}
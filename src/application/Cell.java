@@ -49,11 +49,11 @@ public class Cell extends Button {
 
 	// State flags
 	private boolean revealed = false;
-	private boolean mineable = false;
 	private boolean hasMiner = false;
 	private boolean hasEnemy = false;
 	private boolean walkable = true;
 	private boolean destroyed = false;
+	private boolean partlyMined = false;
 
 	// Key management
 	private int keyIndex = -1;
@@ -107,7 +107,7 @@ public class Cell extends Button {
 				hardness = 0;
 				destroyable = false;
 				break;
-			case SKY_WALKABLE, FINAL_AREA:
+			case SKY_WALKABLE, FINAL_AREA, DESTROYED:
 				walkable = true;
 				hardness = 0;
 				destroyable = false;
@@ -180,13 +180,14 @@ public class Cell extends Button {
 	 */
 	private void setupClickInteraction() {
 		this.setOnAction(e -> {
+			model.getInputTracer().begin(InputTracer.Kind.MINE_CLICK);
 			var adjacentCells = getAdjacentCells();
 			var adjacentCellsHasMiner = adjacentCells.stream().anyMatch(Cell::hasMiner);
 
 			if (type == CellType.SHOP && adjacentCellsHasMiner) {
 				interactWithShop(model);
 			} else {
-				mineCell();
+				model.mineCell(row, col);
 			}
 		});
 	}
@@ -197,7 +198,7 @@ public class Cell extends Button {
 	 * <p>Mining conditions:
 	 * <ul>
 	 *   <li>Cell must be destroyable and not already destroyed</li>
-	 *   <li>Cell must be mineable (player-accessible)</li>
+	 *   <li>Cell must be within reach (the miner's cell or next to it)</li>
 	 *   <li>Player must have sufficient mining power</li>
 	 * </ul>
 	 *
@@ -212,17 +213,26 @@ public class Cell extends Button {
 	 * </p>
 	 */
 	public void mineCell() {
-		System.out.printf("%d", this.hardness);
+		GameLog.debug(GameLog.Category.MINING, "Mining cell with hardness %d", hardness);
 
 		// Check if cell can be mined
-		if (destroyable && !destroyed && this.mineable) {
+		if (destroyable && !destroyed && isWithinReach()) {
+			GameEvents.MineCell event = new GameEvents.MineCell();
+			event.begin();
+			CellType minedType = type;
+			int hardnessBefore = hardness;
+
 			// Apply mining damage
 			this.hardness -= this.miner.getToolsDamage();
+			this.partlyMined = this.hardness > 0;
 
 			// Check if cell is destroyed
 			if (this.hardness <= 0) {
-				setWalkable(true);
+				// Change the type first, so the map sees the mined-out tile when notified
+				boolean key = type == CellType.SECRET_KEY;
+				type = CellType.DESTROYED;
 				destroyed = true;
+				setWalkable(true);
 
 				// Grant gold if applicable
 				if(this.goldValue != 0) {
@@ -231,18 +241,26 @@ public class Cell extends Button {
 				}
 
 				// Collect key if this is a key block
-				if (type == CellType.SECRET_KEY) {
+				if (key) {
 					model.collectKey(this.keyIndex);
 				}
 
-				// Update cell type and reveal it
-				type = CellType.DESTROYED;
+				// Reveal the mined-out cell
 				this.setRevealed(true);
 			}
+
+			if (event.shouldCommit()) {
+				event.type = minedType.name();
+				event.hardness = hardnessBefore;
+				event.destroyed = destroyed;
+				event.row = row;
+				event.col = col;
+				event.commit();
+			}
 		}
 
 		// Check for win condition (final chest with all keys)
-		if (type == CellType.FINAL_CHEST && this.mineable && model.hasAllKeys()) {
+		if (type == CellType.FINAL_CHEST && isWithinReach() && model.hasAllKeys()) {
 			model.openChest();
 		}
 	}
@@ -274,7 +292,8 @@ public class Cell extends Button {
 	 */
 	private void setupDragPathfinding() {
 		this.setOnDragDetected(e -> {
-			System.out.printf("%d:%d \n", col, row);
+			model.getInputTracer().begin(InputTracer.Kind.DRAG_PATH);
+			GameLog.debug(GameLog.Category.PATH, "%d:%d drag started", col, row);
 			if (hasMiner) {
 				((Cell) e.getSource()).startFullDrag();
 				model.clearPath();
@@ -282,13 +301,15 @@ public class Cell extends Button {
 		});
 
 		this.setOnMouseDragEntered(e -> {
-			System.out.printf("%d:%d dragging continues \n", col, row);
+			model.getInputTracer().begin(InputTracer.Kind.DRAG_PATH);
+			GameLog.debug(GameLog.Category.PATH, "%d:%d dragging continues", col, row);
 			model.addToPath(row, col);
 			this.getStyleClass().add("marked");
 		});
 
 		this.setOnMouseDragReleased(e -> {
-			System.out.printf("%d:%d dragging stopped \n", col, row);
+			model.getInputTracer().begin(InputTracer.Kind.DRAG_PATH);
+			GameLog.debug(GameLog.Category.PATH, "%d:%d dragging stopped", col, row);
 			model.moveAlongPath();
 		});
 	}
@@ -354,6 +375,96 @@ public class Cell extends Button {
 		updateVisual();
 	}
 
+	/**
+	 * Replaces the contents of this cell with a fresh block of the given type, as when
+	 * loose material falls into it or out of it. Resets hardness, walkability and gold value
+	 * from the type and notifies the map of the change.
+	 *
+	 * @param type the new cell type
+	 */
+	public void setContents(CellType type) {
+		this.type = type;
+		this.goldValue = 0;
+		this.partlyMined = false;
+		initializeCellProperties(type);
+		this.destroyed = type == CellType.DESTROYED;
+
+		setPosition(this.row, this.col);
+		updateVisual();
+		map.notifyCellChanged(row, col);
+	}
+
+	/**
+	 * Checks if the miner can reach this cell: it stands on it or on one of its four
+	 * neighbours. Computed from the miner's position so that mining works without a view.
+	 *
+	 * @return true if the cell is within reach, false otherwise
+	 */
+	private boolean isWithinReach() {
+		return Math.abs(miner.getRow() - row) + Math.abs(miner.getCol() - col) <= 1;
+	}
+
+	/**
+	 * Clears this cell as if it had been mined out, without notifying the map, crediting gold
+	 * or restyling. Used by bulk changes such as {@link Map#destroyArea(int, int, int)}, which
+	 * notify the map and redraw once for the whole area.
+	 */
+	void clearContents() {
+		this.type = CellType.DESTROYED;
+		this.goldValue = 0;
+		this.partlyMined = false;
+		initializeCellProperties(type);
+		this.destroyed = true;
+		setPosition(this.row, this.col);
+	}
+
+	/**
+	 * Checks if this block has been hit but not yet broken, so its hardness differs from
+	 * the default for its type.
+	 *
+	 * @return true if the block is partly mined, false otherwise
+	 */
+	boolean isPartlyMined() {
+		return partlyMined;
+	}
+
+	/**
+	 * Gets the remaining hardness of this block.
+	 *
+	 * @return the hardness
+	 */
+	int getHardness() {
+		return hardness;
+	}
+
+	/**
+	 * Restores the remaining hardness of a partly mined block, as when loading a save.
+	 *
+	 * @param hardness the remaining hardness
+	 */
+	void restoreHardness(int hardness) {
+		this.hardness = hardness;
+		this.partlyMined = true;
+	}
+
+	/**
+	 * Checks if this cell can be destroyed by mining.
+	 *
+	 * @return true if destroyable, false otherwise
+	 */
+	public boolean isDestroyable() {
+		return destroyable;
+	}
+
+	/**
+	 * Gets the gold granted when this cell is destroyed.
+	 *
+	 * @return the gold value
+	 */
+	public int getGoldValue() {
+		return goldValue;
+	}
+
 	/**
 	 * Checks if this cell has been revealed (visible to player).
 	 *
@@ -412,6 +523,7 @@ public class Cell extends Button {
 		this.walkable = walkable;
 		setPosition(this.row, this.col);
 		updateVisual();
+		map.notifyCellChanged(row, col);
 	}
 
 	/**
@@ -432,16 +544,6 @@ public class Cell extends Button {
 		this.hasEnemy = hasEnemy;
 	}
 
-	/**
-	 * Sets whether this cell can be mined by the player.
-	 *
-	 * @param mineable true if player can mine this cell, false otherwise
-	 */
-	public void setMineable(boolean mineable) {
-		this.mineable = mineable;
-		updateVisual();
-	}
-
 	// ========== INTERACTION METHODS ==========
 
 	/**
@@ -471,6 +573,7 @@ public class Cell extends Button {
 	 * </p>
 	 */
 	public void updateVisual() {
+		PerfCounters.VISUAL_UPDATES.increment();
 		getStyleClass().clear();
 		getStyleClass().add("cell");
 
@@ -0,0 +1,176 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * Collects the result of a bulk change to the map, such as a bomb blast.
+ *
+ * <p>Instead of notifying every system once per cell, a bulk operation records the packed
+ * indices ({@code row * cols + col}) of the cells it changed, the bounding box around them, and
+ * the gold and keys released. The map then applies the whole set in a single
+ * {@link Map#notifyRegion(CellChangeSet)} call. The set is reused between operations, so a
+ * blast does not allocate once its arrays have grown.</p>
+ */
+public class CellChangeSet {
+
+	// Packed indices of the changed cells
+	private int[] cells = new int[64];
+	private int count = 0;
+
+	// Bounding box of the changed cells
+	private int minRow;
+	private int minCol;
+	private int maxRow;
+	private int maxCol;
+
+	// Released resources
+	private int gold = 0;
+	private int[] keys = new int[4];
+	private int keyCount = 0;
+
+	/**
+	 * Empties the set so it can record a new operation.
+	 */
+	public void clear() {
+		count = 0;
+		gold = 0;
+		keyCount = 0;
+		minRow = Integer.MAX_VALUE;
+		minCol = Integer.MAX_VALUE;
+		maxRow = Integer.MIN_VALUE;
+		maxCol = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Records a changed cell and grows the bounding box to include it.
+	 *
+	 * @param row the row of the changed cell
+	 * @param col the column of the changed cell
+	 * @param cols the number of columns in the map, used to pack the index
+	 */
+	public void addCell(int row, int col, int cols) {
+		if (count == cells.length) {
+			cells = Arrays.copyOf(cells, count * 2);
+		}
+		cells[count++] = row * cols + col;
+		minRow = Math.min(minRow, row);
+		minCol = Math.min(minCol, col);
+		maxRow = Math.max(maxRow, row);
+		maxCol = Math.max(maxCol, col);
+	}
+
+	/**
+	 * Adds gold released by the operation.
+	 *
+	 * @param amount the amount of gold
+	 */
+	public void addGold(int amount) {
+		gold += amount;
+	}
+
+	/**
+	 * Records a key released by the operation.
+	 *
+	 * @param keyIndex the index of the key
+	 */
+	public void addKey(int keyIndex) {
+		if (keyCount == keys.length) {
+			keys = Arrays.copyOf(keys, keyCount * 2);
+		}
+		keys[keyCount++] = keyIndex;
+	}
+
+	// ========== GETTER METHODS ==========
+
+	/**
+	 * Checks if the set holds no changed cells.
+	 *
+	 * @return true if no cell changed, false otherwise
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Gets the number of changed cells.
+	 *
+	 * @return the changed cell count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets a changed cell by position in the set.
+	 *
+	 * @param i the position in the set
+	 * @return the packed index of the changed cell
+	 */
+	public int getCell(int i) {
+		return cells[i];
+	}
+
+	/**
+	 * Gets the smallest row of the changed cells.
+	 *
+	 * @return the top row of the bounding box
+	 */
+	public int getMinRow() {
+		return minRow;
+	}
+
+	/**
+	 * Gets the smallest column of the changed cells.
+	 *
+	 * @return the left column of the bounding box
+	 */
+	public int getMinCol() {
+		return minCol;
+	}
+
+	/**
+	 * Gets the largest row of the changed cells.
+	 *
+	 * @return the bottom row of the bounding box
+	 */
+	public int getMaxRow() {
+		return maxRow;
+	}
+
+	/**
+	 * Gets the largest column of the changed cells.
+	 *
+	 * @return the right column of the bounding box
+	 */
+	public int getMaxCol() {
+		return maxCol;
+	}
+
+	/**
+	 * Gets the total gold released.
+	 *
+	 * @return the gold amount
+	 */
+	public int getGold() {
+		return gold;
+	}
+
+	/**
+	 * Gets the number of keys released.
+	 *
+	 * @return the key count
+	 */
+	public int getKeyCount() {
+		return keyCount;
+	}
+
+	/**
+	 * Gets a released key by position in the set.
+	 *
+	 * @param i the position in the key list
+	 * @return the key index
+	 */
+	public int getKey(int i) {
+		return keys[i];
+	}
+}
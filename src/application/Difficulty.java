@@ -55,6 +55,19 @@ public enum Difficulty {
         return displayName;
     }
 
+    /**
+     * Returns the pre-defined map layout for this difficulty level.
+     *
+     * @return a 2D integer array representing the map layout
+     */
+    public int[][] getLayout() {
+        return switch (this) {
+            case MEDIUM -> getMediumLayout();
+            case HARD -> getHardLayout();
+            default -> getEasyLayout();
+        };
+    }
+
     // ========== CELL TYPE MAPPING CONSTANTS ==========
     // The following integers represent different cell types in the map layouts:
     // 0  = SKY (non-walkable background)
@@ -71,6 +84,8 @@ public enum Difficulty {
     // 11 = IRON (valuable resource, high hardness, destroyable)
     // 12 = GOLD (premium resource, high hardness, destroyable)
     // 100 = Special marker (typically used for enemy spawn positions)
+    // -1 = Enemy bat spawn (open cell patrolled by a single bat)
+    // -2 = Swarm nest (open cell releasing a flock of small bats)
 
     /**
      * Returns the pre-defined map layout for Easy difficulty.
@@ -144,7 +159,7 @@ public enum Difficulty {
                 { 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 11, 11, 11, 3, 3, 3, 3, 3, 3, 3 },
                 { 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 4, 11, 11, 3, 3, 3, 3, 3, 3, 3 },
                 { 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3 },
-                { 3, 3, 3, 3, 3, 3, 100, -1, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3 },
+                { 3, 3, 3, 3, 3, 3, 100, -2, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3 },
                 { 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3 },
                 { 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 100, -1, 3, 3, 3, 3, 3, 3 },
                 { 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3 },
@@ -188,14 +203,14 @@ public enum Difficulty {
                 { 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 11, 9, 9, 9, 9, 9, 9, 9 },
                 { 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 11, 11, 11, 9, 100, -1, 9, 9, 9, 9 },
                 { 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 11, 11, 9, 9, 9, 9, 9, 9, 9 },
-                { 9, 9, 9, 9, 100, -1, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9 },
+                { 9, 9, 9, 9, 100, -2, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9 },
                 { 9, 9, 9, 9, 9, 9, 9, 9, 9, 100, -1, 9, 9, 9, 9, 9, 9, 9, 9, 9 },
                 { 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 100, -1, 9, 9, 9, 9, 4 },
                 { 9, 9, 9, 100, -1, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9 },
                 { 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 100, -1, 9, 9, 9, 9, 9, 9, 9 },
                 { 9, 9, 9, 9, 9, 9, 4, 12, 12, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9 },
                 { 9, 9, 9, 9, 9, 9, 9, 12, 12, 9, 9, 9, 100, -1, 9, 9, 9, 9, 9, 9 },
-                { 9, 9, 9, 100, -1, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9 },
+                { 9, 9, 9, 100, -2, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9 },
                 { 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9 },
                 { 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5 },
                 { 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 6, 5, 5, 5, 5, 5 },
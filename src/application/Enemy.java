@@ -1,5 +1,7 @@
 package application;
 
+import java.util.SplittableRandom;
+
 /**
  * Represents an enemy entity in the game that moves horizontally and damages the player on contact.
  *
@@ -9,9 +11,41 @@ package application;
  *
  * <p>Enemy movement is managed by the {@link GameModel} class through a timer that triggers
  * movement updates at regular intervals.</p>
+ *
+ * <p>Enemies are afraid of torches but not of the miner's own lamp: they flee only from light
+ * brighter than {@link LightEngine#MINER_LIGHT}, which only a torch gives. Inside the lamp's
+ * radius a nearby enemy keeps chasing the miner, so the lamp alone is no protection.</p>
  */
 public class Enemy {
 
+	/**
+	 * Represents what the enemy is currently trying to do, as decided by {@link #think}.
+	 */
+	public enum Behaviour {
+		/** Drifts along its row, occasionally turning around. */
+		WANDER,
+		/** Heads towards the miner along its row. */
+		CHASE,
+		/** Moves away from torch light. */
+		FLEE
+	}
+
+	/** Distance (in cells) within which the enemy notices the miner. */
+	private static final int SENSE_RANGE = 6;
+
+	/**
+	 * Light level at or above which the enemy flees towards darker cells. Above the miner's
+	 * lamp, so only torch light scares enemies away.
+	 */
+	private static final int FLEE_LIGHT = LightEngine.MINER_LIGHT + 1;
+
+	/**
+	 * Chance per enemy step that a wandering enemy turns around. Enemies think several times
+	 * between steps, and how often depends on the AI budget, so the chance is rolled at the
+	 * first think of each step period only.
+	 */
+	private static final double TURN_CHANCE = 0.1;
+
 	// Position and movement properties
 	private int row;
 	private int col;
@@ -24,6 +58,11 @@ public class Enemy {
 	// Combat properties
 	private int damage = 10;
 
+	// AI state
+	private Behaviour behaviour = Behaviour.WANDER;
+	private long lastThinkTick = Long.MIN_VALUE;
+	private long lastTurnStep = Long.MIN_VALUE;
+
 	/**
 	 * Constructs a new Enemy at the specified position.
 	 *
@@ -53,6 +92,60 @@ public class Enemy {
 		this.col = newCol;
 	}
 
+	/**
+	 * Decides the enemy's behaviour and direction for its next steps.
+	 *
+	 * <p>An enemy standing in torch light flees towards the darker side, an enemy that senses
+	 * the miner nearby chases it along its row, and otherwise it wanders and sometimes turns
+	 * around, at most once per enemy step. Called by the {@link AiScheduler}, which decides how
+	 * often each enemy may think.</p>
+	 *
+	 * @param tick the current game tick, stored as the last-think time
+	 * @param random the random source for wandering decisions
+	 */
+	public void think(long tick, SplittableRandom random) {
+		lastThinkTick = tick;
+
+		int rowDistance = Math.abs(player.getRow() - row);
+		int colOffset = player.getCol() - col;
+		int distance = rowDistance + Math.abs(colOffset);
+
+		LightEngine light = map.getLight();
+		if (light.getLevel(row, col) >= FLEE_LIGHT) {
+			behaviour = Behaviour.FLEE;
+			int left = col > 0 ? light.getLevel(row, col - 1) : Integer.MAX_VALUE;
+			int right = col < map.getCols() - 1 ? light.getLevel(row, col + 1) : Integer.MAX_VALUE;
+			if (left != right) {
+				direction = left < right ? -1 : 1;
+			} else if (colOffset != 0) {
+				direction = colOffset > 0 ? -1 : 1;
+			}
+		} else if (distance <= SENSE_RANGE && rowDistance <= 1) {
+			behaviour = Behaviour.CHASE;
+			if (colOffset != 0) {
+				direction = colOffset > 0 ? 1 : -1;
+			}
+		} else {
+			behaviour = Behaviour.WANDER;
+			long step = tick / GameModel.ENEMY_STEP_TICKS;
+			if (step != lastTurnStep) {
+				lastTurnStep = step;
+				if (random.nextDouble() < TURN_CHANCE) {
+					revertDirection();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the enemy's horizontal movement direction, as when loading a save.
+	 *
+	 * @param direction 1 for right, -1 for left
+	 */
+	void setDirection(int direction) {
+		this.direction = direction;
+	}
+
 	/**
 	 * Reverses the enemy's horizontal movement direction.
 	 *
@@ -92,6 +185,33 @@ public class Enemy {
 		return row;
 	}
 
+	/**
+	 * Gets the behaviour chosen at the last think.
+	 *
+	 * @return the current behaviour
+	 */
+	public Behaviour getBehaviour() {
+		return behaviour;
+	}
+
+	/**
+	 * Gets the tick at which this enemy last decided what to do.
+	 *
+	 * @return the last-think tick, or {@link Long#MIN_VALUE} if it has never thought
+	 */
+	public long getLastThinkTick() {
+		return lastThinkTick;
+	}
+
+	/**
+	 * Gets the Manhattan distance from this enemy to the miner.
+	 *
+	 * @return the distance in cells
+	 */
+	public int distanceToPlayer() {
+		return Math.abs(player.getRow() - row) + Math.abs(player.getCol() - col);
+	}
+
 	/**
 	 * Gets the current horizontal movement direction.
 	 *
@@ -0,0 +1,272 @@
+package application;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Computes one movement step for all enemies against a read-only snapshot of the map.
+ *
+ * <p>The step runs in three phases:
+ * <ol>
+ *   <li><strong>Propose:</strong> every enemy picks its target cell by reading only the
+ *       front occupancy buffer and the cell walkability, so the result does not depend on
+ *       the order enemies are visited in.</li>
+ *   <li><strong>Resolve:</strong> conflicting proposals are cancelled until the row is
+ *       stable. Two enemies aiming for the same cell leave it to the lower index, two enemies
+ *       trying to swap places both stay, and nobody moves into a cell whose occupant stays.
+ *       Cancelled enemies bounce and turn around.</li>
+ *   <li><strong>Commit:</strong> the new positions are written to the back occupancy buffer,
+ *       the buffers are swapped, and only the cells that actually changed are updated.</li>
+ * </ol>
+ * </p>
+ *
+ * <p>Enemies patrol horizontally, so conflicts can only arise within a row. The propose and
+ * resolve phases therefore run independently on stripes of rows, and in parallel once the
+ * enemy count reaches {@value #PARALLEL_THRESHOLD}. The commit phase touches the scene graph
+ * and always runs on the calling thread.</p>
+ */
+public class EnemyStepper {
+
+	/** Enemy count from which stripes are processed with a parallel stream. */
+	private static final int PARALLEL_THRESHOLD = 256;
+
+	/** Number of map rows handled by one stripe. */
+	private static final int STRIPE_ROWS = 16;
+
+	private final Map map;
+	private final Enemy[] enemies;
+	private final int rows;
+	private final int cols;
+
+	// Occupancy buffers: enemy index + 1 per cell, 0 when empty
+	private int[] front;
+	private int[] back;
+
+	// Per-enemy step state
+	private final int[] position;
+	private final int[] target;
+	private final boolean[] bounce;
+
+	// Enemies bucketed by row
+	private final int[] rowStart;
+	private final int[] byRow;
+
+	private final IntConsumer stripeStep = this::stepStripe;
+
+	/**
+	 * Constructs a new EnemyStepper for the enemies currently placed on the map.
+	 *
+	 * @param map the map the enemies move on
+	 */
+	public EnemyStepper(Map map) {
+		this.map = map;
+		this.rows = map.getRows();
+		this.cols = map.getCols();
+
+		List<Enemy> list = map.getEnemies();
+		this.enemies = list.toArray(new Enemy[0]);
+
+		front = new int[rows * cols];
+		back = new int[rows * cols];
+		position = new int[enemies.length];
+		target = new int[enemies.length];
+		bounce = new boolean[enemies.length];
+		rowStart = new int[rows + 1];
+		byRow = new int[enemies.length];
+
+		for (int i = 0; i < enemies.length; i++) {
+			front[enemies[i].getRow() * cols + enemies[i].getCol()] = i + 1;
+		}
+	}
+
+	/**
+	 * Moves every enemy by one step and applies the result to the map.
+	 *
+	 * @param miner the miner, hurt by enemies that move onto its cell
+	 * @return the number of enemies that changed cell
+	 */
+	public int step(Miner miner) {
+		bucketByRow();
+
+		int stripes = (rows + STRIPE_ROWS - 1) / STRIPE_ROWS;
+		if (enemies.length >= PARALLEL_THRESHOLD) {
+			IntStream.range(0, stripes).parallel().forEach(stripeStep);
+		} else {
+			for (int s = 0; s < stripes; s++) {
+				stepStripe(s);
+			}
+		}
+
+		int[] swap = front;
+		front = back;
+		back = swap;
+
+		return commit(miner);
+	}
+
+	/**
+	 * Sorts enemy indices by row with a counting sort into preallocated arrays.
+	 */
+	private void bucketByRow() {
+		Arrays.fill(rowStart, 0);
+		for (Enemy enemy : enemies) {
+			rowStart[enemy.getRow() + 1]++;
+		}
+		for (int r = 0; r < rows; r++) {
+			rowStart[r + 1] += rowStart[r];
+		}
+		for (int i = 0; i < enemies.length; i++) {
+			int r = enemies[i].getRow();
+			byRow[rowStart[r]++] = i;
+		}
+		// Shift the starts back after using them as insertion cursors
+		for (int r = rows; r > 0; r--) {
+			rowStart[r] = rowStart[r - 1];
+		}
+		rowStart[0] = 0;
+	}
+
+	/**
+	 * Proposes and resolves the moves of all enemies in one stripe of rows, and writes
+	 * their resulting positions into the back buffer. Touches only the stripe's own rows.
+	 */
+	private void stepStripe(int stripe) {
+		int fromRow = stripe * STRIPE_ROWS;
+		int toRow = Math.min(rows, fromRow + STRIPE_ROWS);
+		Cell[][] cells = map.getCells();
+
+		Arrays.fill(back, fromRow * cols, toRow * cols, 0);
+
+		for (int r = fromRow; r < toRow; r++) {
+			int first = rowStart[r];
+			int last = rowStart[r + 1];
+
+			// Propose
+			for (int k = first; k < last; k++) {
+				int i = byRow[k];
+				Enemy enemy = enemies[i];
+				int col = enemy.getCol();
+				int newCol = col + enemy.getDirection();
+				position[i] = r * cols + col;
+				if (newCol < 0 || newCol >= cols || !cells[r][newCol].isWalkable()) {
+					target[i] = position[i];
+					bounce[i] = true;
+				} else {
+					target[i] = r * cols + newCol;
+					bounce[i] = false;
+				}
+			}
+
+			// Resolve
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int k = first; k < last; k++) {
+					int i = byRow[k];
+					if (target[i] != position[i] && conflicts(i, first, last)) {
+						target[i] = position[i];
+						bounce[i] = true;
+						changed = true;
+					}
+				}
+			}
+
+			for (int k = first; k < last; k++) {
+				int i = byRow[k];
+				back[target[i]] = i + 1;
+			}
+		}
+	}
+
+	/**
+	 * Checks if the proposed move of enemy {@code i} conflicts with another enemy in its row.
+	 */
+	private boolean conflicts(int i, int first, int last) {
+		int occupant = front[target[i]] - 1;
+		if (occupant >= 0 && occupant != i) {
+			// The occupant stays, or the two enemies would swap places
+			if (target[occupant] == position[occupant] || target[occupant] == position[i]) {
+				return true;
+			}
+		}
+		for (int k = first; k < last; k++) {
+			int j = byRow[k];
+			if (j < i && target[j] == target[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Puts every enemy back on a recorded cell with a recorded direction, as when rewinding.
+	 *
+	 * @param cells packed cell index per enemy
+	 * @param directions direction per enemy
+	 * @param offset position of the first enemy's entry in both arrays
+	 */
+	void restore(int[] cells, byte[] directions, int offset) {
+		Cell[][] grid = map.getCells();
+
+		// Lift the enemies that moved, then put them down, so swapped cells end up occupied
+		for (int i = 0; i < enemies.length; i++) {
+			int from = enemies[i].getRow() * cols + enemies[i].getCol();
+			if (from != cells[offset + i]) {
+				front[from] = 0;
+				grid[from / cols][from % cols].setHasEnemy(false);
+				grid[from / cols][from % cols].updateVisual();
+			}
+		}
+		for (int i = 0; i < enemies.length; i++) {
+			int to = cells[offset + i];
+			enemies[i].setDirection(directions[offset + i]);
+			if (front[to] != i + 1) {
+				front[to] = i + 1;
+				enemies[i].move(to / cols, to % cols);
+				grid[to / cols][to % cols].setHasEnemy(true);
+				grid[to / cols][to % cols].updateVisual();
+			}
+		}
+	}
+
+	/**
+	 * Applies the resolved step to the enemies and the affected cells.
+	 *
+	 * @return the number of enemies that changed cell
+	 */
+	private int commit(Miner miner) {
+		Cell[][] cells = map.getCells();
+		int moved = 0;
+
+		for (int i = 0; i < enemies.length; i++) {
+			Enemy enemy = enemies[i];
+			if (bounce[i]) {
+				enemy.revertDirection();
+			}
+			if (target[i] == position[i]) {
+				continue;
+			}
+
+			Cell from = cells[position[i] / cols][position[i] % cols];
+			from.setHasEnemy(front[position[i]] != 0);
+			from.updateVisual();
+
+			int row = target[i] / cols;
+			int col = target[i] % cols;
+			Cell to = cells[row][col];
+
+			// Check if enemy collides with miner
+			if (to.hasMiner()) {
+				miner.hurt(enemy.getDamage());
+			}
+
+			enemy.move(row, col);
+			to.setHasEnemy(true);
+			to.updateVisual();
+			moved++;
+		}
+		return moved;
+	}
+}
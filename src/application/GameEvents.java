@@ -0,0 +1,209 @@
+package application;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the main game operations.
+ *
+ * <p>All events are disabled by default and carry no stack trace. They are turned on in a
+ * recording configuration, for example with
+ * {@code -XX:StartFlightRecording:settings=profile,+minequest.EnemyTick#enabled=true}, or all at
+ * once from JDK Mission Control. The call sites follow the usual pattern: create the event, call
+ * {@code begin()} for timed events, then set the fields and {@code commit()} only when
+ * {@code shouldCommit()} holds. While an event is disabled, {@code shouldCommit()} is a constant
+ * false check and the event object does not escape, so the JIT removes the allocation and the
+ * instrumentation costs nothing.</p>
+ */
+public final class GameEvents {
+
+	private static final String CATEGORY = "Mine Quest";
+
+	private GameEvents() {
+	}
+
+	/**
+	 * One step of all enemies.
+	 */
+	@Name("minequest.EnemyTick")
+	@Label("Enemy Tick")
+	@Category(CATEGORY)
+	@Description("All enemies moved by one step")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class EnemyTick extends Event {
+		@Label("Game Tick")
+		long tick;
+
+		@Label("Enemies")
+		int enemies;
+	}
+
+	/**
+	 * One update of the miner's oxygen.
+	 */
+	@Name("minequest.OxygenTick")
+	@Label("Oxygen Tick")
+	@Category(CATEGORY)
+	@Description("The miner's oxygen was updated for one game tick")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class OxygenTick extends Event {
+		@Label("Game Tick")
+		long tick;
+
+		@Label("Oxygen")
+		int oxygen;
+	}
+
+	/**
+	 * A move command of the player.
+	 */
+	@Name("minequest.MoveMiner")
+	@Label("Move Miner")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class MoveMiner extends Event {
+		@Label("Direction")
+		String direction;
+
+		@Label("Moved")
+		boolean moved;
+
+		@Label("Row")
+		int row;
+
+		@Label("Column")
+		int col;
+	}
+
+	/**
+	 * One hit of the pickaxe on a cell.
+	 */
+	@Name("minequest.MineCell")
+	@Label("Mine Cell")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class MineCell extends Event {
+		@Label("Cell Type")
+		String type;
+
+		@Label("Hardness")
+		@Description("Hardness left before the hit")
+		int hardness;
+
+		@Label("Destroyed")
+		boolean destroyed;
+
+		@Label("Row")
+		int row;
+
+		@Label("Column")
+		int col;
+	}
+
+	/**
+	 * One pass of the fog of war over the changed light levels.
+	 */
+	@Name("minequest.Reveal")
+	@Label("Reveal Pass")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class Reveal extends Event {
+		@Label("Cells Touched")
+		int cells;
+
+		@Label("Full Pass")
+		@Description("Whether every cell of the map was visited")
+		boolean full;
+	}
+
+	/**
+	 * An attempt to buy an item in the shop.
+	 */
+	@Name("minequest.ShopPurchase")
+	@Label("Shop Purchase")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class ShopPurchase extends Event {
+		@Label("Item")
+		String item;
+
+		@Label("Bought")
+		boolean bought;
+
+		@Label("Gold Left")
+		int gold;
+	}
+
+	/**
+	 * One step of the miner along a walked path.
+	 */
+	@Name("minequest.PathStep")
+	@Label("Path Step")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class PathStep extends Event {
+		@Label("Row")
+		int row;
+
+		@Label("Column")
+		int col;
+
+		@Label("Remaining")
+		@Description("Path cells still to walk after this step")
+		int remaining;
+
+		@Label("Blocked")
+		boolean blocked;
+	}
+
+	/**
+	 * One traced input, from its event handler to the frame that shows it.
+	 */
+	@Name("minequest.InputLatency")
+	@Label("Input Latency")
+	@Category(CATEGORY)
+	@Description("Time from handling an input to the end of the next pulse's layout")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class InputLatency extends Event {
+		@Label("Trace Id")
+		long traceId;
+
+		@Label("Input Kind")
+		String kind;
+
+		@Label("Total")
+		@Timespan
+		long total;
+
+		@Label("Model")
+		@Timespan
+		long model;
+
+		@Label("Reveal")
+		@Timespan
+		long reveal;
+
+		@Label("Update")
+		@Timespan
+		long update;
+
+		@Label("Frame")
+		@Description("From the view passes to the end of the next pulse's layout")
+		@Timespan
+		long frame;
+	}
+}
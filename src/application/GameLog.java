@@ -0,0 +1,370 @@
+package application;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Leveled, categorized game log, written to the console by a background thread.
+ *
+ * <p>Every message has a {@link Level} and a {@link Category}. A message below the threshold of
+ * its category is dropped by a single array lookup, before anything is formatted, boxed or
+ * allocated. Messages that pass are not formatted by the caller either: the format string and
+ * its arguments are copied into a preallocated slot of a ring buffer, and the {@code log-writer}
+ * thread formats and prints them later. Numeric arguments are taken as {@code long}, so logging
+ * a number does not box it on the calling thread. When the ring is full, new messages are
+ * dropped and counted rather than making the game wait.</p>
+ *
+ * <p>The thresholds are read once from the {@code minequest.log} system property, a comma
+ * separated list of a default level and {@code category=level} overrides, for example
+ * {@code -Dminequest.log=info,mining=debug}. The default is {@code info}. Debug and info messages
+ * go to standard output, warnings and errors to standard error. Pending messages are written
+ * when the JVM exits.</p>
+ */
+public final class GameLog {
+
+	/**
+	 * Severity of a message, from the most to the least verbose.
+	 */
+	public enum Level {
+		DEBUG, INFO, WARN, ERROR, OFF
+	}
+
+	/**
+	 * Part of the game a message comes from.
+	 */
+	public enum Category {
+		/** Mining hits and destroyed blocks. */
+		MINING,
+		/** Drag paths and auto-walk. */
+		PATH,
+		/** Gold, shop purchases and upgrades. */
+		ECONOMY,
+		/** Keys, winning and losing. */
+		GAME,
+		/** Saves, journals, recordings and the metrics endpoint. */
+		IO
+	}
+
+	private static final int CAPACITY = 1024;
+	private static final long IDLE_PARK_NANOS = 5_000_000L;
+	private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+			.withZone(ZoneId.systemDefault());
+
+	// Argument shapes of a slot, one per logging overload
+	private static final byte NO_ARGS = 0;
+	private static final byte ONE_LONG = 1;
+	private static final byte TWO_LONGS = 2;
+	private static final byte ONE_OBJECT = 3;
+	private static final byte TWO_OBJECTS = 4;
+
+	private static final Level[] thresholds = new Level[Category.values().length];
+
+	// Ring of message slots; a slot is readable once its published sequence matches
+	private static final Slot[] slots = new Slot[CAPACITY];
+	private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+	private static final AtomicLong claimed = new AtomicLong();
+	private static volatile long consumed = 0;
+	private static final LongAdder dropped = new LongAdder();
+
+	static {
+		for (int i = 0; i < CAPACITY; i++) {
+			slots[i] = new Slot();
+			published.set(i, -1);
+		}
+		configure(System.getProperty("minequest.log", "info"));
+
+		Thread writer = new Thread(GameLog::drainForever, "log-writer");
+		writer.setDaemon(true);
+		writer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(GameLog::drain, "log-flush"));
+	}
+
+	/**
+	 * One message waiting to be written. Fields are written by the thread that claimed the
+	 * slot and read by the writer after the slot is published.
+	 */
+	private static final class Slot {
+		long time;
+		Level level;
+		Category category;
+		String format;
+		byte shape;
+		long a;
+		long b;
+		Object x;
+		Object y;
+		Throwable thrown;
+	}
+
+	private GameLog() {
+	}
+
+	// ========== CONFIGURATION ==========
+
+	/**
+	 * Sets the thresholds from a specification such as {@code info,mining=debug}.
+	 * Unknown names are ignored.
+	 */
+	private static void configure(String spec) {
+		for (String part : spec.split(",")) {
+			String[] pair = part.trim().split("=");
+			try {
+				Level level = Level.valueOf(pair[pair.length - 1].trim().toUpperCase(Locale.ROOT));
+				if (pair.length == 1) {
+					Arrays.fill(thresholds, level);
+				} else {
+					setLevel(Category.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), level);
+				}
+			} catch (IllegalArgumentException e) {
+				// Keep the previous threshold
+			}
+		}
+	}
+
+	/**
+	 * Sets the lowest level that is logged for a category.
+	 *
+	 * @param category the category
+	 * @param level the threshold, or {@link Level#OFF} to log nothing
+	 */
+	public static void setLevel(Category category, Level level) {
+		thresholds[category.ordinal()] = level;
+	}
+
+	/**
+	 * Checks if messages of a level are logged for a category.
+	 *
+	 * @param level the message level
+	 * @param category the message category
+	 * @return true if such messages are logged
+	 */
+	public static boolean isEnabled(Level level, Category category) {
+		return level.compareTo(thresholds[category.ordinal()]) >= 0;
+	}
+
+	/**
+	 * Gets the number of messages dropped because the ring was full.
+	 *
+	 * @return the dropped message count
+	 */
+	public static long getDropped() {
+		return dropped.sum();
+	}
+
+	// ========== LOGGING ==========
+
+	/**
+	 * Logs a debug message.
+	 *
+	 * @param category the message category
+	 * @param message the message
+	 */
+	public static void debug(Category category, String message) {
+		if (isEnabled(Level.DEBUG, category)) {
+			log(Level.DEBUG, category, message, NO_ARGS, 0, 0, null, null, null);
+		}
+	}
+
+	/**
+	 * Logs a debug message with one numeric argument.
+	 *
+	 * @param category the message category
+	 * @param format the {@link String#format(String, Object...)} format
+	 * @param a the argument
+	 */
+	public static void debug(Category category, String format, long a) {
+		if (isEnabled(Level.DEBUG, category)) {
+			log(Level.DEBUG, category, format, ONE_LONG, a, 0, null, null, null);
+		}
+	}
+
+	/**
+	 * Logs a debug message with two numeric arguments.
+	 *
+	 * @param category the message category
+	 * @param format the {@link String#format(String, Object...)} format
+	 * @param a the first argument
+	 * @param b the second argument
+	 */
+	public static void debug(Category category, String format, long a, long b) {
+		if (isEnabled(Level.DEBUG, category)) {
+			log(Level.DEBUG, category, format, TWO_LONGS, a, b, null, null, null);
+		}
+	}
+
+	/**
+	 * Logs an info message.
+	 *
+	 * @param category the message category
+	 * @param message the message
+	 */
+	public static void info(Category category, String message) {
+		if (isEnabled(Level.INFO, category)) {
+			log(Level.INFO, category, message, NO_ARGS, 0, 0, null, null, null);
+		}
+	}
+
+	/**
+	 * Logs an info message with two numeric arguments.
+	 *
+	 * @param category the message category
+	 * @param format the {@link String#format(String, Object...)} format
+	 * @param a the first argument
+	 * @param b the second argument
+	 */
+	public static void info(Category category, String format, long a, long b) {
+		if (isEnabled(Level.INFO, category)) {
+			log(Level.INFO, category, format, TWO_LONGS, a, b, null, null, null);
+		}
+	}
+
+	/**
+	 * Logs a warning with one argument.
+	 *
+	 * @param category the message category
+	 * @param format the {@link String#format(String, Object...)} format
+	 * @param x the argument
+	 */
+	public static void warn(Category category, String format, Object x) {
+		if (isEnabled(Level.WARN, category)) {
+			log(Level.WARN, category, format, ONE_OBJECT, 0, 0, x, null, null);
+		}
+	}
+
+	/**
+	 * Logs a warning with two arguments.
+	 *
+	 * @param category the message category
+	 * @param format the {@link String#format(String, Object...)} format
+	 * @param x the first argument
+	 * @param y the second argument
+	 */
+	public static void warn(Category category, String format, Object x, Object y) {
+		if (isEnabled(Level.WARN, category)) {
+			log(Level.WARN, category, format, TWO_OBJECTS, 0, 0, x, y, null);
+		}
+	}
+
+	/**
+	 * Logs an error with the exception that caused it. The stack trace is printed after the
+	 * message.
+	 *
+	 * @param category the message category
+	 * @param message the message
+	 * @param thrown the exception
+	 */
+	public static void error(Category category, String message, Throwable thrown) {
+		if (isEnabled(Level.ERROR, category)) {
+			log(Level.ERROR, category, message, NO_ARGS, 0, 0, null, null, thrown);
+		}
+	}
+
+	/**
+	 * Waits until every message logged so far has been written, or one second has passed.
+	 * Used before exiting the JVM with {@link System#exit(int)} from a command line tool.
+	 */
+	public static void flush() {
+		long target = claimed.get();
+		long deadline = System.nanoTime() + 1_000_000_000L;
+		while (consumed < target && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(1_000_000L);
+		}
+	}
+
+	/**
+	 * Claims a slot and fills it, or drops the message if the ring is full.
+	 */
+	private static void log(Level level, Category category, String format, byte shape,
+			long a, long b, Object x, Object y, Throwable thrown) {
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence - consumed >= CAPACITY) {
+				dropped.increment();
+				return;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+
+		int index = (int) (sequence & (CAPACITY - 1));
+		Slot slot = slots[index];
+		slot.time = System.currentTimeMillis();
+		slot.level = level;
+		slot.category = category;
+		slot.format = format;
+		slot.shape = shape;
+		slot.a = a;
+		slot.b = b;
+		slot.x = x;
+		slot.y = y;
+		slot.thrown = thrown;
+		published.set(index, sequence);
+	}
+
+	// ========== WRITER ==========
+
+	/**
+	 * Writes messages as they are published, for the life of the JVM.
+	 */
+	private static void drainForever() {
+		while (true) {
+			if (!drain()) {
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Writes all messages published in order so far. Synchronized so the shutdown hook and the
+	 * writer thread never write the same slot.
+	 *
+	 * @return true if at least one message was written
+	 */
+	private static synchronized boolean drain() {
+		boolean wrote = false;
+		long next = consumed;
+		int index = (int) (next & (CAPACITY - 1));
+		while (published.get(index) == next) {
+			write(slots[index]);
+			Slot slot = slots[index];
+			slot.format = null;
+			slot.x = null;
+			slot.y = null;
+			slot.thrown = null;
+			consumed = ++next;
+			index = (int) (next & (CAPACITY - 1));
+			wrote = true;
+		}
+		if (wrote) {
+			System.out.flush();
+			System.err.flush();
+		}
+		return wrote;
+	}
+
+	/**
+	 * Formats and prints one message.
+	 */
+	private static void write(Slot slot) {
+		String text = switch (slot.shape) {
+			case ONE_LONG -> String.format(slot.format, slot.a);
+			case TWO_LONGS -> String.format(slot.format, slot.a, slot.b);
+			case ONE_OBJECT -> String.format(slot.format, slot.x);
+			case TWO_OBJECTS -> String.format(slot.format, slot.x, slot.y);
+			default -> slot.format;
+		};
+		PrintStream out = slot.level.compareTo(Level.WARN) >= 0 ? System.err : System.out;
+		out.println(TIME.format(Instant.ofEpochMilli(slot.time)) + " " + slot.level + " ["
+				+ slot.category.name().toLowerCase(Locale.ROOT) + "] " + text);
+		if (slot.thrown != null) {
+			slot.thrown.printStackTrace(out);
+		}
+	}
+}
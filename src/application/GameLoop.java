@@ -0,0 +1,125 @@
+package application;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Drives the game model at a fixed tick rate from the JavaFX pulse.
+ *
+ * <p>Each frame, the elapsed time is added to an accumulator and {@link GameModel#tick()} is
+ * called once for every whole tick that fits into it. When a frame is very late, at most
+ * {@value #MAX_TICKS_PER_FRAME} ticks are run and the remaining backlog is dropped, so a stall
+ * never turns into a burst of catch-up work.</p>
+ *
+ * <p>The loop can run the game faster or slower than real time with {@link #setSpeed(double)},
+ * which scales the elapsed time (and the catch-up cap), and can run a hook before every tick,
+ * which {@link InputReplayer} uses to feed recorded commands.</p>
+ */
+public class GameLoop extends AnimationTimer {
+
+	/** Upper bound on catch-up ticks run in a single frame. */
+	private static final int MAX_TICKS_PER_FRAME = 5;
+
+	private final GameModel model;
+	private final long tickNanos;
+
+	// Runs once per frame after the ticks, for per-frame rendering
+	private Runnable frameCallback;
+
+	// Runs before every tick, for example to apply recorded input
+	private Runnable tickHook;
+
+	// Game time per real time
+	private double speed = 1.0;
+
+	private long lastFrame = -1;
+	private long accumulator = 0;
+
+	/**
+	 * Constructs a new GameLoop for the given model.
+	 *
+	 * @param model the game model to advance
+	 */
+	public GameLoop(GameModel model) {
+		this.model = model;
+		this.tickNanos = GameModel.TICK_MILLIS * 1_000_000L;
+	}
+
+	/**
+	 * Runs the ticks that are due at this frame.
+	 *
+	 * @param now the frame timestamp in nanoseconds
+	 */
+	@Override
+	public void handle(long now) {
+		if (lastFrame < 0) {
+			lastFrame = now;
+			return;
+		}
+		accumulator += (long) ((now - lastFrame) * speed);
+		lastFrame = now;
+
+		int maxTicks = (int) Math.ceil(MAX_TICKS_PER_FRAME * Math.max(1.0, speed));
+		int ticks = 0;
+		while (accumulator >= tickNanos && ticks < maxTicks) {
+			if (tickHook != null) {
+				tickHook.run();
+			}
+			model.tick();
+			accumulator -= tickNanos;
+			ticks++;
+		}
+		if (ticks == maxTicks) {
+			accumulator = 0;
+		}
+
+		if (frameCallback != null) {
+			frameCallback.run();
+		}
+	}
+
+	/**
+	 * Sets the callback run once per frame after the due ticks.
+	 *
+	 * @param frameCallback the runnable to execute every frame
+	 */
+	public void setFrameCallback(Runnable frameCallback) {
+		this.frameCallback = frameCallback;
+	}
+
+	/**
+	 * Sets the callback run before every tick.
+	 *
+	 * @param tickHook the runnable to execute before each tick, or null for none
+	 */
+	public void setTickHook(Runnable tickHook) {
+		this.tickHook = tickHook;
+	}
+
+	/**
+	 * Sets how fast game time runs compared to real time.
+	 *
+	 * @param speed the speed factor, such as 1 for real time or 4 for four times as fast
+	 */
+	public void setSpeed(double speed) {
+		this.speed = speed;
+	}
+
+	/**
+	 * Gets how fast game time runs compared to real time.
+	 *
+	 * @return the speed factor
+	 */
+	public double getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * Stops the loop and forgets the frame history, so a restart does not run a burst of ticks.
+	 */
+	@Override
+	public void stop() {
+		super.stop();
+		lastFrame = -1;
+		accumulator = 0;
+	}
+}
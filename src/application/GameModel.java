@@ -1,12 +1,8 @@
 package application;
 
-import java.awt.Point;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.util.Duration;
-import java.util.LinkedList;
-import java.util.Queue;
-import javafx.animation.PauseTransition;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import javafx.stage.Stage;
 
 /**
@@ -15,10 +11,25 @@ import javafx.stage.Stage;
  *
  * <p>This class serves as the central controller that coordinates between the game map,
  * player (miner), enemies, and the user interface. It handles movement, pathfinding,
- * game timers, win/lose conditions, and callback mechanisms for UI updates.</p>
+ * the game tick, win/lose conditions, and callback mechanisms for UI updates.</p>
  */
 public class GameModel {
 
+	/** Number of game ticks per second. */
+	public static final int TICKS_PER_SECOND = 20;
+
+	/** Duration of one game tick in milliseconds. */
+	public static final int TICK_MILLIS = 1000 / TICKS_PER_SECOND;
+
+	/** Number of ticks between two enemy steps. */
+	public static final int ENEMY_STEP_TICKS = TICKS_PER_SECOND;
+
+	/** Number of ticks stepped back by one rewind. */
+	public static final int REWIND_TICKS = 10 * TICKS_PER_SECOND;
+
+	/** Radius of a bomb blast in cells; a blast clears a 7x7 square. */
+	public static final int BOMB_RADIUS = 3;
+
 	/**
 	 * Represents the four possible movement directions for the player.
 	 */
@@ -37,110 +48,242 @@ public class GameModel {
 	private Runnable loseCallback;
 	private Runnable goldCallback;
 	private Runnable oxygenCallback;
+	private Runnable bombCallback;
 	private Runnable shopCallback;
 	private Runnable keyCollectedCallback;
 	private Runnable chestOpenedCallback;
 
 	// Game state variables
 	private boolean gameWon;
+	private boolean gameOver;
+	private long tickCount = 0;
 	private final int startRowMiner = 4;
 	private final int startColMiner = 3;
 	private int colsNum;
 	private int rowsNum;
 
-	// Pathfinding queue for drag-to-move functionality
-	private Queue<Point> pathQueue;
+	// Path collected while dragging, as packed cell indices
+	private int[] dragPath = new int[64];
+	private int dragLength = 0;
+
+	// Executes queued paths on the game tick
+	private final AutoWalker autoWalker;
+
+	// Traces player input through the model and view to the frame that shows it
+	private final InputTracer inputTracer = new InputTracer();
 
 	// Key collection tracking
 	private int keysCollected = 0;
-	private final int totalKeys = 3;
+	private final int totalKeys = KeyCodeManager.KEY_COUNT;
 
-	// Game timers
-	private Timeline timer;
-	private Timeline enemyTimer;
 	private KeyCodeManager keyCodeManager;
 
+	// Seeded source of all randomness in this session
+	private final GameRandom random;
+	private final Difficulty difficulty;
+
+	// Records player commands for replay, or null when not recording
+	private InputRecorder recorder;
+
+	// Crash journal of world mutations, or null when not journaling
+	private WorldJournal journal;
+
+	// Recent history for stepping back in time
+	private RewindBuffer rewind;
+
+	// Oxygen value last shown on the HUD
+	private int shownOxygen = Integer.MIN_VALUE;
+
+	// Double-buffered enemy movement and time-budgeted enemy decisions
+	private final EnemyStepper enemyStepper;
+	private final AiScheduler aiScheduler;
+
 	/**
-	 * Constructs a new GameModel with the specified character and difficulty.
+	 * Constructs a new GameModel with the specified character and difficulty and a fresh
+	 * random seed.
 	 *
 	 * @param characterImage the image file name for the player character
 	 * @param difficulty the game difficulty level (EASY, MEDIUM, HARD)
 	 */
 	public GameModel(String characterImage, Difficulty difficulty) {
-		this.miner = new Miner(startRowMiner, startColMiner, characterImage);
-		this.map = new Map(miner, this, difficulty);
-		this.keyCodeManager = new KeyCodeManager();
-		this.gameWon = false;
+		this(characterImage, difficulty, GameRandom.newSeed());
+	}
+
+	/**
+	 * Constructs a new GameModel with the specified character, difficulty and random seed.
+	 * All randomness in the session is drawn from streams derived from the seed, so the same
+	 * seed and inputs give the same game once {@link #setDeterministic(boolean)} is enabled.
+	 *
+	 * @param characterImage the image file name for the player character
+	 * @param difficulty the game difficulty level (EASY, MEDIUM, HARD)
+	 * @param seed the session seed
+	 */
+	public GameModel(String characterImage, Difficulty difficulty, long seed) {
+		this(characterImage, difficulty, difficulty.getLayout(), seed, null);
+	}
+
+	/**
+	 * Constructs a GameModel on a custom layout, such as a generated benchmark map. The
+	 * layout uses the codes of the {@link Difficulty} layouts and must have a walkable cell at
+	 * the miner's start position. Saves and journals of such a game refer to the given
+	 * difficulty, so they cannot be restored.
+	 *
+	 * @param characterImage the image file name for the player character
+	 * @param difficulty the difficulty reported for the game
+	 * @param layout the layout codes, indexed by row and column
+	 * @param seed the session seed
+	 */
+	GameModel(String characterImage, Difficulty difficulty, int[][] layout, long seed) {
+		this(characterImage, difficulty, layout, seed, null);
+	}
+
+	/**
+	 * Constructs a GameModel that continues a saved game.
+	 *
+	 * @param snapshot the saved game state
+	 * @see SaveManager
+	 */
+	public GameModel(GameSnapshot snapshot) {
+		this(snapshot.characterImage, snapshot.difficulty, null, snapshot.seed, snapshot);
+	}
+
+	/**
+	 * Builds a new game on a layout, or restores a saved one when a snapshot is given.
+	 */
+	private GameModel(String characterImage, Difficulty difficulty, int[][] layout, long seed,
+			GameSnapshot snapshot) {
+		this.random = new GameRandom(seed);
+		this.difficulty = difficulty;
+		if (snapshot == null) {
+			this.miner = new Miner(startRowMiner, startColMiner, characterImage);
+			this.map = new Map(miner, this, layout, random);
+			this.keyCodeManager = new KeyCodeManager(random.stream(GameRandom.Stream.KEY_CODES));
+			this.gameWon = false;
+		} else {
+			this.tickCount = snapshot.tickCount;
+			this.miner = new Miner(snapshot.minerRow, snapshot.minerCol, characterImage);
+			miner.setGoldAmount(snapshot.gold);
+			miner.setBombs(snapshot.bombs);
+			miner.setToolsDamage(snapshot.toolsDamage);
+			miner.setPickaxeLevel(snapshot.pickaxeLevel);
+			miner.setPickaxeImage(snapshot.pickaxeImage);
+			miner.setOxygenLevel(snapshot.oxygenLevel);
+			miner.setMaxOxygen(snapshot.maxOxygen);
+			this.map = new Map(miner, this, snapshot, random);
+			this.keyCodeManager = new KeyCodeManager(snapshot.keyCodes, snapshot.keyCollected);
+			this.keysCollected = snapshot.keysCollected;
+			this.gameWon = snapshot.gameWon;
+		}
 
 		// Set up lose condition callback
 		miner.setLoseCallback(() -> {
-			timer.stop();
-			enemyTimer.stop();
-			loseCallback.run();
+			if (gameOver) {
+				return;
+			}
+			endGame();
+			if (loseCallback != null) {
+				loseCallback.run();
+			}
 		});
 
 		this.rowsNum = map.getRows();
 		this.colsNum = map.getCols();
 
-		pathQueue = new LinkedList<>();
+		this.autoWalker = new AutoWalker(this, colsNum);
+		this.enemyStepper = new EnemyStepper(map);
+		this.aiScheduler = new AiScheduler(map.getEnemies(), random.stream(GameRandom.Stream.ENEMY_AI));
 
 		// Initialize miner position on the map
-		map.getCells()[startRowMiner][startColMiner].setHasMiner(true);
-		startTimer();
-
-		moveEnemy();
+		map.getCells()[miner.getRow()][miner.getCol()].setHasMiner(true);
+		miner.setClock(() -> tickCount);
+		if (snapshot != null) {
+			miner.restoreOxygen(snapshot.oxygen);
+		}
+		clearRewind();
 	}
 
 	/**
-	 * Starts the enemy movement timer that moves all enemies every second.
-	 * Enemies move horizontally and change direction when hitting obstacles.
+	 * Moves all enemies by one step.
+	 * Enemies move horizontally and change direction when hitting obstacles or each other.
 	 */
 	private void moveEnemy() {
-		if (enemyTimer != null) {
-			return;
+		PerfCounters.ENEMY_STEPS.increment();
+		GameEvents.EnemyTick event = new GameEvents.EnemyTick();
+		event.begin();
+		enemyStepper.step(miner);
+		if (event.shouldCommit()) {
+			event.tick = tickCount;
+			event.enemies = map.getEnemies().size();
+			event.commit();
 		}
+	}
 
-		enemyTimer = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-			Cell[][] cells = map.getCells();
-
-			for(Enemy enemy : map.getEnemies()) {
-				int newCol = enemy.getCol() + enemy.getDirection();
-				int row = enemy.getRow();
-
-				// Check if enemy can move to the new position
-				if (newCol < 0 || newCol >= map.getCols() || !cells[row][newCol].isWalkable()) {
-					enemy.revertDirection(); // Change direction if blocked
-					continue;
-				}
-
-				// Remove enemy from current cell
-				cells[enemy.getRow()][enemy.getCol()].setHasEnemy(false);
-				cells[enemy.getRow()][enemy.getCol()].updateVisual();
-
-				// Check if enemy collides with miner
-				if (cells[row][newCol].hasMiner()) {
-					miner.hurt(enemy.getDamage());
-				}
-
-				// Move enemy to new position
-				enemy.move(row, newCol);
+	/**
+	 * Advances the game by one tick. Called {@value #TICKS_PER_SECOND} times per second
+	 * by the {@link GameLoop}, or directly when running without a UI.
+	 */
+	public void tick() {
+		if (gameOver) {
+			return;
+		}
+		long start = System.nanoTime();
+		rewind.beginFrame();
+		tickCount++;
+		PerfCounters.TICKS.increment();
+
+		aiScheduler.update(tickCount);
+		if (tickCount % ENEMY_STEP_TICKS == 0) {
+			moveEnemy();
+		}
+		map.getSwarm().update(TICK_MILLIS / 1000f);
+		map.getGasField().update();
+		if (tickCount % GravitySystem.FALL_TICKS == 0) {
+			map.getGravity().step();
+		}
 
-				// Add enemy to new cell
-				cells[row][newCol].setHasEnemy(true);
-				cells[row][newCol].updateVisual();
-			}
-		}));
-		enemyTimer.setCycleCount(Timeline.INDEFINITE);
-		enemyTimer.play();
+		if (!gameOver && autoWalker.tick() && callback != null) {
+			callback.run();
+		}
+		if (!gameOver) {
+			updateOxygen();
+		}
+		if (journal != null) {
+			journal.afterTick(tickCount, miner.getOxygen());
+		}
+		PerfCounters.TICK_TIME.recordSince(start);
 	}
 
 	/**
-	 * Attempts to move the miner in the specified direction.
+	 * Attempts to move the miner in the specified direction as a player command.
+	 * Any auto-walk in progress is cancelled.
 	 *
 	 * @param direction the direction to move (UP, DOWN, LEFT, RIGHT)
 	 * @return true if movement was successful, false if blocked by bounds, non-walkable cell, or enemy
 	 */
 	public boolean moveMiner(Direction direction) {
+		record(InputRecorder.Command.MOVE, direction.ordinal());
+		autoWalker.cancel();
+		GameEvents.MoveMiner event = new GameEvents.MoveMiner();
+		event.begin();
+		boolean moved = stepMiner(direction);
+		if (event.shouldCommit()) {
+			event.direction = direction.name();
+			event.moved = moved;
+			event.row = miner.getRow();
+			event.col = miner.getCol();
+			event.commit();
+		}
+		inputTracer.mark(InputTracer.Phase.MODEL);
+		return moved;
+	}
+
+	/**
+	 * Moves the miner one cell in the specified direction.
+	 *
+	 * @param direction the direction to move (UP, DOWN, LEFT, RIGHT)
+	 * @return true if movement was successful, false if blocked by bounds, non-walkable cell, or enemy
+	 */
+	boolean stepMiner(Direction direction) {
 		int newRow = miner.getRow();
 		int newCol = miner.getCol();
 
@@ -169,16 +312,56 @@ public class GameModel {
 			return false;
 		}
 
+		placeMiner(newRow, newCol);
+		return true;
+	}
+
+	/**
+	 * Moves the miner to a cell without any checks, updating the cells and the light.
+	 *
+	 * @param row the row to place the miner
+	 * @param col the column to place the miner
+	 */
+	void placeMiner(int row, int col) {
+		Cell[][] cells = map.getCells();
+
 		// Remove miner from current cell
 		cells[miner.getRow()][miner.getCol()].setHasMiner(false);
 
 		// Update miner's position
-		miner.moveTo(newRow, newCol);
+		miner.moveTo(row, col);
 
 		// Place miner on new cell
-		cells[newRow][newCol].setHasMiner(true);
+		cells[row][col].setHasMiner(true);
+		map.getLight().setMinerPosition(row, col);
 
-		return true;
+		if (journal != null) {
+			journal.minerMoved(row, col);
+		}
+	}
+
+	/**
+	 * Checks if moving the miner in the given direction would run into an enemy.
+	 *
+	 * @param direction the direction of the intended step, or null for no step
+	 * @return true if the target cell holds an enemy, false otherwise
+	 */
+	boolean isStepBlockedByEnemy(Direction direction) {
+		if (direction == null) {
+			return false;
+		}
+		int row = miner.getRow();
+		int col = miner.getCol();
+		switch (direction) {
+			case UP -> row--;
+			case DOWN -> row++;
+			case LEFT -> col--;
+			case RIGHT -> col++;
+		}
+		if (row < 0 || col < 0 || row >= rowsNum || col >= colsNum) {
+			return false;
+		}
+		return map.getCells()[row][col].hasEnemy();
 	}
 
 	/**
@@ -188,14 +371,12 @@ public class GameModel {
 	 * @param startCol the column to place the miner
 	 */
 	public void resetGame(int startRow, int startCol) {
-		Cell[][] cells = map.getCells();
-		cells[miner.getRow()][miner.getCol()].setHasMiner(false);
-
-		miner.moveTo(startRow, startCol);
-		cells[startRow][startCol].setHasMiner(true);
+		placeMiner(startRow, startCol);
 
 		gameWon = false;
+		gameOver = false;
 		keysCollected = 0;
+		autoWalker.cancel();
 	}
 
 	/**
@@ -207,7 +388,7 @@ public class GameModel {
 	 * @param toCol target column
 	 * @return the direction to move, or null if positions are the same
 	 */
-	private Direction getDirection(int fromRow, int fromCol, int toRow, int toCol) {
+	Direction getDirection(int fromRow, int fromCol, int toRow, int toCol) {
 		if (toRow < fromRow)
 			return Direction.UP;
 		if (toRow > fromRow)
@@ -222,71 +403,438 @@ public class GameModel {
 	// ========== PATHFINDING QUEUE METHODS ==========
 
 	/**
-	 * Clears the current path queue.
+	 * Clears the path collected while dragging.
 	 * Used when starting a new drag movement.
 	 */
 	public void clearPath() {
-		pathQueue.clear();
+		record(InputRecorder.Command.PATH_CLEAR);
+		dragLength = 0;
 	}
 
 	/**
-	 * Adds a cell position to the path queue.
+	 * Adds a cell position to the path collected while dragging.
 	 *
 	 * @param row the row of the cell to add
 	 * @param col the column of the cell to add
 	 */
 	public void addToPath(int row, int col) {
-		pathQueue.add(new Point(row, col));
+		record(InputRecorder.Command.PATH_ADD, row, col);
+		if (dragLength == dragPath.length) {
+			dragPath = Arrays.copyOf(dragPath, dragLength * 2);
+		}
+		dragPath[dragLength++] = row * colsNum + col;
+		inputTracer.mark(InputTracer.Phase.MODEL);
 	}
 
 	/**
-	 * Initiates movement along the queued path.
-	 * Processes the path queue and moves the miner step by step.
+	 * Starts walking along the dragged path, replacing any walk in progress.
 	 */
 	public void moveAlongPath() {
-		Point prevLocation = pathQueue.poll();
+		record(InputRecorder.Command.PATH_GO);
+		if (dragLength > 0) {
+			autoWalker.setPath(dragPath, 0, dragLength);
+			dragLength = 0;
+		}
+		inputTracer.mark(InputTracer.Phase.MODEL);
+	}
 
-		if (prevLocation != null) {
-			moveNextStep(prevLocation);
+	/**
+	 * Starts walking to a target cell along a path found by the map's pathfinder.
+	 * If the target cannot be entered (such as a key block or the chest), the miner
+	 * walks to the closest reachable cell next to it.
+	 *
+	 * @param row the target row
+	 * @param col the target column
+	 * @return true if a path was found and the walk started, false otherwise
+	 */
+	public boolean walkTo(int row, int col) {
+		record(InputRecorder.Command.WALK_TO, row, col);
+		HierarchicalPathfinder pathfinder = map.getPathfinder();
+		int[] path = pathfinder.findPath(miner.getRow(), miner.getCol(), row, col);
+		if (path == null) {
+			path = pathfinder.findPathToAdjacent(miner.getRow(), miner.getCol(), row, col);
 		}
+		if (path == null) {
+			return false;
+		}
+		autoWalker.setPath(path, 0, path.length);
+		return true;
+	}
+
+	/**
+	 * Cancels the auto-walk in progress, if any.
+	 */
+	public void cancelWalk() {
+		record(InputRecorder.Command.CANCEL_WALK);
+		autoWalker.cancel();
 	}
 
 	/**
-	 * Recursively moves the miner to the next step in the path.
-	 * Uses a pause transition to create smooth sequential movement.
+	 * Sets the delay between two auto-walk steps.
 	 *
-	 * @param prevLocation the previous location in the path
+	 * @param millis the step interval in milliseconds
 	 */
-	private void moveNextStep(Point prevLocation) {
-		if (pathQueue.isEmpty()) {
-			return;
+	public void setWalkStepMillis(int millis) {
+		autoWalker.setStepMillis(millis);
+	}
+
+	/**
+	 * Gets the scheduler that decides enemy behaviour.
+	 *
+	 * @return the AI scheduler instance
+	 */
+	public AiScheduler getAiScheduler() {
+		return aiScheduler;
+	}
+
+	/**
+	 * Switches deterministic mode on or off. In deterministic mode, enemy decisions are limited
+	 * by a fixed number of thinks per tick instead of a time budget, so the outcome of a tick
+	 * no longer depends on how fast the machine runs it.
+	 *
+	 * @param deterministic true to make ticks reproducible, false to use the time budget
+	 */
+	public void setDeterministic(boolean deterministic) {
+		aiScheduler.setThinkQuota(deterministic ? AiScheduler.DEFAULT_THINK_QUOTA : 0);
+	}
+
+	/**
+	 * Checks if the session runs in deterministic mode.
+	 *
+	 * @return true if ticks are reproducible, false otherwise
+	 */
+	public boolean isDeterministic() {
+		return aiScheduler.getThinkQuota() > 0;
+	}
+
+	// ========== RECORDING ==========
+
+	/**
+	 * Starts recording the player commands of this session. Recording switches the session to
+	 * deterministic mode, so the recording can be replayed exactly.
+	 *
+	 * @param characterImage the character image, stored in the recording header
+	 * @param difficulty the difficulty, stored in the recording header
+	 * @return the recorder receiving the commands
+	 */
+	public InputRecorder startRecording(String characterImage, Difficulty difficulty) {
+		setDeterministic(true);
+		recorder = new InputRecorder(random.getSeed(), difficulty, characterImage);
+		return recorder;
+	}
+
+	/**
+	 * Gets the recorder of this session.
+	 *
+	 * @return the input recorder, or null when not recording
+	 */
+	public InputRecorder getRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Starts journaling every world mutation of this session to a crash journal in the given
+	 * directory, replacing any journal already there.
+	 *
+	 * @param dir the journal directory
+	 * @return the journal
+	 * @throws IOException if the journal files cannot be created
+	 * @see WorldJournal#recover(Path)
+	 */
+	public WorldJournal startJournal(Path dir) throws IOException {
+		journal = new WorldJournal(dir, this);
+		map.setJournal(journal);
+		return journal;
+	}
+
+	/**
+	 * Gets the crash journal of this session.
+	 *
+	 * @return the world journal, or null when not journaling
+	 */
+	public WorldJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Gets the rewind history of this session.
+	 *
+	 * @return the rewind buffer
+	 */
+	public RewindBuffer getRewind() {
+		return rewind;
+	}
+
+	private void record(InputRecorder.Command command) {
+		if (recorder != null) {
+			recorder.record(tickCount, command);
 		}
+	}
+
+	private void record(InputRecorder.Command command, int arg) {
+		if (recorder != null) {
+			recorder.record(tickCount, command, arg);
+		}
+	}
 
-		Point coord = pathQueue.poll();
-		Direction moveDirection = getDirection(prevLocation.x, prevLocation.y, coord.x, coord.y);
-		if (moveDirection != null) {
-			moveMiner(moveDirection);
+	private void record(InputRecorder.Command command, int row, int col) {
+		if (recorder != null) {
+			recorder.record(tickCount, command, row, col);
 		}
-		prevLocation = coord;
-		callback.run();
+	}
 
-		// Create smooth movement with delay between steps
-		PauseTransition pause = new PauseTransition(Duration.millis(200));
-		pause.setOnFinished(e -> moveNextStep(coord));
-		pause.play();
+	private void record(InputRecorder.Command command, String text) {
+		if (recorder != null) {
+			recorder.record(tickCount, command, text);
+		}
+	}
+
+	/**
+	 * Gets the seeded random service of this session.
+	 *
+	 * @return the game random service
+	 */
+	public GameRandom getRandom() {
+		return random;
+	}
+
+	/**
+	 * Gets the difficulty this session was started with.
+	 *
+	 * @return the game difficulty
+	 */
+	public Difficulty getDifficulty() {
+		return difficulty;
+	}
+
+	/**
+	 * Gets the executor that walks queued paths.
+	 *
+	 * @return the auto-walker instance
+	 */
+	public AutoWalker getAutoWalker() {
+		return autoWalker;
+	}
+
+	/**
+	 * Gets the tracer that follows player input to the screen.
+	 *
+	 * @return the input tracer instance
+	 */
+	public InputTracer getInputTracer() {
+		return inputTracer;
+	}
+
+	// ========== MINING AND SHOP COMMANDS ==========
+
+	/**
+	 * Mines the cell at the given position, as when the player clicks it.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 */
+	public void mineCell(int row, int col) {
+		record(InputRecorder.Command.MINE, row, col);
+		map.getCells()[row][col].mineCell();
+		inputTracer.mark(InputTracer.Phase.MODEL);
+	}
+
+	/**
+	 * Buys the next pickaxe upgrade in the shop.
+	 *
+	 * @return true if the upgrade was bought, false otherwise
+	 */
+	public boolean buyPickaxeUpgrade() {
+		record(InputRecorder.Command.BUY_PICKAXE);
+		boolean bought = Shop.buyPickaxeUpgrade(miner, this);
+		if (bought && journal != null) {
+			journal.pickaxeUpgraded(miner.getPickaxeLevel());
+		}
+		recordPurchase("pickaxe", bought);
+		return bought;
+	}
+
+	/**
+	 * Buys the next oxygen upgrade in the shop.
+	 *
+	 * @return true if the upgrade was bought, false otherwise
+	 */
+	public boolean buyOxygenUpgrade() {
+		record(InputRecorder.Command.BUY_OXYGEN);
+		boolean bought = Shop.buyOxygenUpgrade(miner, this);
+		if (bought && journal != null) {
+			journal.oxygenUpgraded(miner.getOxygenLevel());
+		}
+		recordPurchase("oxygen", bought);
+		return bought;
+	}
+
+	/**
+	 * Buys one bomb in the shop.
+	 *
+	 * @return true if the bomb was bought, false otherwise
+	 */
+	public boolean buyBomb() {
+		record(InputRecorder.Command.BUY_BOMB);
+		boolean bought = Shop.buyBomb(miner, this);
+		recordPurchase("bomb", bought);
+		return bought;
+	}
+
+	/**
+	 * Emits a flight recorder event for a shop purchase attempt.
+	 */
+	private void recordPurchase(String item, boolean bought) {
+		GameEvents.ShopPurchase event = new GameEvents.ShopPurchase();
+		if (event.shouldCommit()) {
+			event.item = item;
+			event.bought = bought;
+			event.gold = miner.getGoldAmount();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Checks a code entered at the final chest and wins the game if it is correct.
+	 *
+	 * @param code the entered code
+	 * @return true if the code matched the collected key codes, false otherwise
+	 */
+	public boolean submitChestCode(String code) {
+		record(InputRecorder.Command.CHEST_CODE, code);
+		if (!code.equalsIgnoreCase(keyCodeManager.getAllKeyCodes())) {
+			return false;
+		}
+		checkWinCondition();
+		return true;
+	}
+
+	// ========== TORCH METHODS ==========
+
+	/**
+	 * Places a torch on the miner's cell, or picks up the torch already there.
+	 *
+	 * @return true if a torch was placed, false if one was picked up
+	 */
+	public boolean toggleTorch() {
+		record(InputRecorder.Command.TORCH);
+		if (journal != null) {
+			journal.torchToggled(miner.getRow(), miner.getCol());
+		}
+		return map.getLight().toggleTorch(miner.getRow(), miner.getCol());
+	}
+
+	// ========== REWIND METHODS ==========
+
+	/**
+	 * Steps the world back in time: tiles, the miner's position, oxygen, gold, bombs, upgrades
+	 * and keys, and the enemies. Gas, light and swarm bats carry on from their current state.
+	 *
+	 * @param ticks the number of ticks to step back, usually {@link #REWIND_TICKS}
+	 * @return the number of ticks actually stepped back, limited by the recorded history
+	 */
+	public int rewind(int ticks) {
+		record(InputRecorder.Command.REWIND, ticks);
+		if (gameOver) {
+			return 0;
+		}
+		autoWalker.cancel();
+		int stepped = rewind.rewind(ticks);
+		if (stepped > 0) {
+			if (journal != null) {
+				journal.rewound();
+			}
+			shownOxygen = Integer.MIN_VALUE;
+			notifyGoldChanged();
+			notifyBombsChanged();
+			if (callback != null) {
+				callback.run();
+			}
+		}
+		return stepped;
+	}
+
+	/**
+	 * Drops the rewind history, so the current state is the earliest one that can be
+	 * rewound to.
+	 */
+	void clearRewind() {
+		rewind = new RewindBuffer(this);
+		map.setRewindBuffer(rewind);
+	}
+
+	/**
+	 * Sets which keys are collected from a bit mask, as when rewinding.
+	 *
+	 * @param mask bit i set when key i is collected
+	 */
+	void restoreKeys(int mask) {
+		keysCollected = 0;
+		for (int i = 0; i < totalKeys; i++) {
+			boolean collected = (mask & (1 << i)) != 0;
+			keyCodeManager.setKeyCollected(i, collected);
+			if (collected) {
+				keysCollected++;
+			}
+		}
+	}
+
+	/**
+	 * Puts the enemies back on recorded cells, as when rewinding.
+	 *
+	 * @param cells packed cell index per enemy
+	 * @param directions direction per enemy
+	 * @param offset position of the first enemy's entry in both arrays
+	 */
+	void restoreEnemies(int[] cells, byte[] directions, int offset) {
+		enemyStepper.restore(cells, directions, offset);
+	}
+
+	// ========== BOMB METHODS ==========
+
+	/**
+	 * Detonates a bomb at the miner's position, destroying every destroyable cell within
+	 * {@value #BOMB_RADIUS} cells. The gold and keys in the blast are collected at once, and
+	 * the map is updated in a single batch.
+	 *
+	 * @return true if a bomb was detonated, false if the miner carries none
+	 */
+	public boolean detonateBomb() {
+		record(InputRecorder.Command.BOMB);
+		if (gameOver || !miner.useBomb()) {
+			return false;
+		}
+
+		CellChangeSet changes = map.destroyArea(miner.getRow(), miner.getCol(), BOMB_RADIUS);
+		if (changes.getGold() > 0) {
+			miner.addGold(changes.getGold());
+			notifyGoldChanged();
+		}
+		for (int i = 0; i < changes.getKeyCount(); i++) {
+			collectKey(changes.getKey(i));
+		}
+		notifyBombsChanged();
+		return true;
 	}
 
 	// ========== KEY COLLECTION METHODS ==========
 
 	/**
-	 * Collects a key and updates game state.
+	 * Collects a key and updates game state. A key that is already collected is not counted
+	 * again.
 	 *
 	 * @param keyIndex the index of the key being collected
 	 */
 	public void collectKey(int keyIndex) {
+		if (keyCodeManager.isKeyCollected(keyIndex)) {
+			return;
+		}
 		keysCollected++;
 		keyCodeManager.collectKey(keyIndex);
-		System.out.println("Key collected! Total: " + keysCollected + "/" + totalKeys);
+		if (journal != null) {
+			journal.keyCollected(keyIndex);
+		}
+		GameLog.info(GameLog.Category.GAME, "Key collected! Total: %d/%d", keysCollected, totalKeys);
 
 		if (keyCollectedCallback != null) {
 			keyCollectedCallback.run();
@@ -306,31 +854,62 @@ public class GameModel {
 
 	/**
 	 * Checks and triggers win condition if all keys are collected.
-	 * Stops game timers and executes win callback.
+	 * Ends the game and executes win callback.
 	 */
 	public void checkWinCondition() {
 		if (hasAllKeys() && !gameWon) {
 			gameWon = true;
-			System.out.println("YOU WIN!");
+			GameLog.info(GameLog.Category.GAME, "YOU WIN!");
+			endGame();
 			if (winCallback != null) {
-				timer.stop();
-				enemyTimer.stop();
 				winCallback.run();
 			}
 		}
 	}
 
 	/**
-	 * Starts the oxygen depletion timer.
-	 * Reduces miner's oxygen every second and triggers UI updates.
+	 * Marks the game as finished, stopping the tick and any auto-walk in progress.
+	 */
+	private void endGame() {
+		gameOver = true;
+		autoWalker.cancel();
+		if (recorder != null) {
+			recorder.finish(tickCount);
+		}
+		if (journal != null) {
+			journal.discard();
+			journal = null;
+			map.setJournal(null);
+		}
+	}
+
+	/**
+	 * Keeps the miner's oxygen function in step with the air at its cell, ends the game at the
+	 * scheduled suffocation tick, and refreshes the HUD only when the shown value changes.
+	 * While the oxygen is negative, the HUD is also refreshed once per second so it can blink.
 	 */
-	public void startTimer() {
-		timer = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-			miner.depleteOxygen();
+	private void updateOxygen() {
+		PerfCounters.OXYGEN_TICKS.increment();
+		GameEvents.OxygenTick event = new GameEvents.OxygenTick();
+		event.begin();
+		miner.updateOxygenDrain(map.getGasField().drainAt(miner.getRow(), miner.getCol()));
+		if (tickCount >= miner.getSuffocationTick()) {
+			miner.suffocate();
+			return;
+		}
+
+		int oxygen = miner.getOxygen();
+		int shown = Math.max(0, oxygen);
+		boolean blink = oxygen < 0 && tickCount % TICKS_PER_SECOND == 0;
+		if ((shown != shownOxygen || blink) && oxygenCallback != null) {
+			shownOxygen = shown;
 			oxygenCallback.run();
-		}));
-		timer.setCycleCount(Timeline.INDEFINITE);
-		timer.play();
+		}
+		if (event.shouldCommit()) {
+			event.tick = tickCount;
+			event.oxygen = oxygen;
+			event.commit();
+		}
 	}
 
 	/**
@@ -399,6 +978,15 @@ public class GameModel {
 		this.oxygenCallback = oxygenCallback;
 	}
 
+	/**
+	 * Sets the callback for bomb count changes.
+	 *
+	 * @param bombCallback the runnable to execute when the bomb count changes
+	 */
+	public void setBombCallback(Runnable bombCallback) {
+		this.bombCallback = bombCallback;
+	}
+
 	/**
 	 * Sets the callback for shop interactions.
 	 *
@@ -464,6 +1052,24 @@ public class GameModel {
 		return gameWon;
 	}
 
+	/**
+	 * Checks if the game has ended, either won or lost.
+	 *
+	 * @return true if the game is over, false otherwise
+	 */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+
+	/**
+	 * Gets the number of ticks run since the game started.
+	 *
+	 * @return the tick count
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
 	/**
 	 * Gets the number of keys collected.
 	 *
@@ -487,11 +1093,26 @@ public class GameModel {
 	 * Triggers the gold callback if available.
 	 */
 	public void notifyGoldChanged() {
+		if (journal != null) {
+			journal.goldChanged(miner.getGoldAmount());
+		}
 		if (goldCallback != null) {
 			goldCallback.run();
 		}
 	}
 
+	/**
+	 * Notifies listeners that the miner's bomb count has changed.
+	 */
+	public void notifyBombsChanged() {
+		if (journal != null) {
+			journal.bombsChanged(miner.getBombs());
+		}
+		if (bombCallback != null) {
+			bombCallback.run();
+		}
+	}
+
 	/**
 	 * Opens the final chest and triggers completion events.
 	 * Executes the chest opened callback if available.
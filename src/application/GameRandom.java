@@ -0,0 +1,93 @@
+package application;
+
+import java.util.SplittableRandom;
+
+/**
+ * The single source of randomness for a game session.
+ *
+ * <p>A session is created from one 64-bit seed. Each subsystem that needs random numbers asks
+ * for its own {@link SplittableRandom} stream, whose seed is derived by mixing the session seed
+ * with the subsystem. Streams are independent of each other and of the order they are requested
+ * in, so adding random draws to one subsystem never changes the numbers another one sees. The
+ * same seed and the same inputs therefore always produce the same game, which replays,
+ * regression benchmarks and bot evaluation rely on.</p>
+ */
+public class GameRandom {
+
+	/**
+	 * The subsystems that draw random numbers, each with its own stream. A stream's number goes
+	 * into its seed, so recorded sessions replay only while the numbers stay the same; numbers
+	 * of removed streams are not reused.
+	 */
+	public enum Stream {
+		/** Codes shown for the secret keys. */
+		KEY_CODES(1),
+		/** Enemy decisions. */
+		ENEMY_AI(3),
+		/** Bat swarm headings. */
+		SWARM(4);
+
+		private final int number;
+
+		/**
+		 * Constructs a stream with the number mixed into its seed.
+		 *
+		 * @param number the stream number, unique among current and removed streams
+		 */
+		Stream(int number) {
+			this.number = number;
+		}
+	}
+
+	// Odd constant used to spread stream numbers across the seed space
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long seed;
+
+	/**
+	 * Constructs a random service for the given session seed.
+	 *
+	 * @param seed the session seed
+	 */
+	public GameRandom(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Creates a fresh, unpredictable session seed for normal play.
+	 *
+	 * @return a new seed
+	 */
+	public static long newSeed() {
+		return new SplittableRandom().nextLong();
+	}
+
+	/**
+	 * Creates the random stream of a subsystem. Every call returns a new stream starting at the
+	 * same point, so each subsystem should request its stream once and keep it.
+	 *
+	 * @param stream the subsystem
+	 * @return a random stream derived from the session seed and the subsystem
+	 */
+	public SplittableRandom stream(Stream stream) {
+		return new SplittableRandom(mix(seed + stream.number * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Gets the session seed.
+	 *
+	 * @return the seed this session was created from
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Scrambles a 64-bit value so that nearby inputs give unrelated outputs.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
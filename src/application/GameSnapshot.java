@@ -0,0 +1,427 @@
+package application;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A copy of the persistent state of a game, used for saving and loading.
+ *
+ * <p>{@link #capture(GameModel)} copies the state into plain arrays. It does no encoding or
+ * I/O, so it is cheap enough to run on the JavaFX application thread between two frames. The
+ * binary encoding ({@link #write(DataOutputStream)}) can then run on a background thread, since
+ * the snapshot no longer shares anything with the live game.</p>
+ *
+ * <p>Tiles are stored as run-length encoded runs of cell types. Only the state that cannot be
+ * derived from the type is stored per cell: the hardness of partly mined blocks and the key
+ * index of key blocks. Gas concentrations are rebuilt from the tiles on load, and swarm bats
+ * start again around their nests.</p>
+ */
+public class GameSnapshot {
+
+	/** File magic and format version. */
+	private static final byte[] MAGIC = {'M', 'Q', 'S'};
+	private static final int VERSION = 1;
+
+	/**
+	 * Largest map a save may describe. Far beyond any playable map, it keeps a damaged size
+	 * from making the load allocate without bound.
+	 */
+	private static final int MAX_CELLS = 1 << 24;
+
+	// Session
+	long seed;
+	Difficulty difficulty;
+	String characterImage;
+	long tickCount;
+
+	// Miner
+	int minerRow;
+	int minerCol;
+	int gold;
+	int bombs;
+	int toolsDamage;
+	int pickaxeLevel;
+	int oxygenLevel;
+	int maxOxygen;
+	int oxygen;
+	String pickaxeImage;
+
+	// Keys
+	String[] keyCodes;
+	boolean[] keyCollected;
+	int keysCollected;
+	boolean gameWon;
+
+	// Tiles, as cell type ordinals indexed by packed cell index
+	int rows;
+	int cols;
+	byte[] types;
+
+	// Per-cell exceptions, as packed cell index and value pairs
+	int[] hardnessCells;
+	int[] hardnessValues;
+	int[] keyCells;
+	int[] keyIndices;
+
+	// Enemies and other map objects
+	int[] enemyRows;
+	int[] enemyCols;
+	int[] enemyDirections;
+	int[] nests;
+	int[] torches;
+
+	/**
+	 * Copies the persistent state of a game. Must be called on the thread that runs the game.
+	 *
+	 * @param model the game to capture
+	 * @return a snapshot sharing no mutable state with the game
+	 */
+	public static GameSnapshot capture(GameModel model) {
+		GameSnapshot s = new GameSnapshot();
+		s.seed = model.getRandom().getSeed();
+		s.difficulty = model.getDifficulty();
+		s.characterImage = model.getMiner().getCharacterImage();
+		s.tickCount = model.getTickCount();
+
+		Miner miner = model.getMiner();
+		s.minerRow = miner.getRow();
+		s.minerCol = miner.getCol();
+		s.gold = miner.getGoldAmount();
+		s.bombs = miner.getBombs();
+		s.toolsDamage = miner.getToolsDamage();
+		s.pickaxeLevel = miner.getPickaxeLevel();
+		s.oxygenLevel = miner.getOxygenLevel();
+		s.maxOxygen = miner.getMaxOxygen();
+		s.oxygen = miner.getOxygen();
+		s.pickaxeImage = miner.getPickaxeImage();
+
+		KeyCodeManager keys = model.getKeyCodeManager();
+		s.keyCodes = new String[model.getTotalKeys()];
+		s.keyCollected = new boolean[model.getTotalKeys()];
+		for (int i = 0; i < s.keyCodes.length; i++) {
+			s.keyCodes[i] = keys.getKeyCode(i);
+			s.keyCollected[i] = keys.isKeyCollected(i);
+		}
+		s.keysCollected = model.getKeysCollected();
+		s.gameWon = model.isGameWon();
+
+		Map map = model.getMap();
+		Cell[][] cells = map.getCells();
+		s.rows = map.getRows();
+		s.cols = map.getCols();
+		s.types = new byte[s.rows * s.cols];
+		int[] hardnessCells = new int[16];
+		int[] hardnessValues = new int[16];
+		int hardnessCount = 0;
+		int[] keyCells = new int[4];
+		int[] keyIndices = new int[4];
+		int keyCount = 0;
+		for (int r = 0; r < s.rows; r++) {
+			for (int c = 0; c < s.cols; c++) {
+				Cell cell = cells[r][c];
+				int i = r * s.cols + c;
+				s.types[i] = (byte) cell.getType().ordinal();
+				if (cell.isPartlyMined()) {
+					if (hardnessCount == hardnessCells.length) {
+						hardnessCells = Arrays.copyOf(hardnessCells, hardnessCount * 2);
+						hardnessValues = Arrays.copyOf(hardnessValues, hardnessCount * 2);
+					}
+					hardnessCells[hardnessCount] = i;
+					hardnessValues[hardnessCount++] = cell.getHardness();
+				}
+				if (cell.getType() == CellType.SECRET_KEY) {
+					if (keyCount == keyCells.length) {
+						keyCells = Arrays.copyOf(keyCells, keyCount * 2);
+						keyIndices = Arrays.copyOf(keyIndices, keyCount * 2);
+					}
+					keyCells[keyCount] = i;
+					keyIndices[keyCount++] = cell.getKeyIndex();
+				}
+			}
+		}
+		s.hardnessCells = Arrays.copyOf(hardnessCells, hardnessCount);
+		s.hardnessValues = Arrays.copyOf(hardnessValues, hardnessCount);
+		s.keyCells = Arrays.copyOf(keyCells, keyCount);
+		s.keyIndices = Arrays.copyOf(keyIndices, keyCount);
+
+		List<Enemy> enemies = map.getEnemies();
+		s.enemyRows = new int[enemies.size()];
+		s.enemyCols = new int[enemies.size()];
+		s.enemyDirections = new int[enemies.size()];
+		for (int i = 0; i < enemies.size(); i++) {
+			s.enemyRows[i] = enemies.get(i).getRow();
+			s.enemyCols[i] = enemies.get(i).getCol();
+			s.enemyDirections[i] = enemies.get(i).getDirection();
+		}
+		s.nests = map.getNests().clone();
+		s.torches = map.getLight().getTorches();
+		return s;
+	}
+
+	// ========== ENCODING ==========
+
+	/**
+	 * Writes the snapshot in its binary format.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if writing fails
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.write(MAGIC);
+		out.writeByte(VERSION);
+		out.writeLong(seed);
+		out.writeByte(difficulty.ordinal());
+		out.writeUTF(characterImage);
+		out.writeLong(tickCount);
+
+		out.writeInt(minerRow);
+		out.writeInt(minerCol);
+		out.writeInt(gold);
+		out.writeInt(bombs);
+		out.writeInt(toolsDamage);
+		out.writeInt(pickaxeLevel);
+		out.writeInt(oxygenLevel);
+		out.writeInt(maxOxygen);
+		out.writeInt(oxygen);
+		out.writeUTF(pickaxeImage);
+
+		out.writeByte(keyCodes.length);
+		for (int i = 0; i < keyCodes.length; i++) {
+			out.writeUTF(keyCodes[i]);
+			out.writeBoolean(keyCollected[i]);
+		}
+		out.writeInt(keysCollected);
+		out.writeBoolean(gameWon);
+
+		out.writeInt(rows);
+		out.writeInt(cols);
+		writeRuns(out);
+		writePairs(out, hardnessCells, hardnessValues);
+		writePairs(out, keyCells, keyIndices);
+
+		out.writeInt(enemyRows.length);
+		for (int i = 0; i < enemyRows.length; i++) {
+			out.writeInt(enemyRows[i]);
+			out.writeInt(enemyCols[i]);
+			out.writeByte(enemyDirections[i]);
+		}
+		writeInts(out, nests);
+		writeInts(out, torches);
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #write(DataOutputStream)}.
+	 *
+	 * @param in the stream to read from
+	 * @return the decoded snapshot
+	 * @throws IOException if reading fails or the data is not a supported snapshot
+	 */
+	public static GameSnapshot read(DataInputStream in) throws IOException {
+		byte[] magic = new byte[MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, MAGIC)) {
+			throw new IOException("Not a Mine Quest save");
+		}
+		int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported save version " + version);
+		}
+
+		GameSnapshot s = new GameSnapshot();
+		s.seed = in.readLong();
+		s.difficulty = readEnum(in, Difficulty.values());
+		s.characterImage = in.readUTF();
+		s.tickCount = in.readLong();
+
+		s.minerRow = in.readInt();
+		s.minerCol = in.readInt();
+		s.gold = in.readInt();
+		s.bombs = in.readInt();
+		s.toolsDamage = in.readInt();
+		s.pickaxeLevel = in.readInt();
+		s.oxygenLevel = in.readInt();
+		s.maxOxygen = in.readInt();
+		s.oxygen = in.readInt();
+		s.pickaxeImage = in.readUTF();
+		check(Shop.isPickaxeLevel(s.pickaxeLevel) && Shop.isOxygenLevel(s.oxygenLevel));
+
+		int keys = in.readUnsignedByte();
+		check(keys == KeyCodeManager.KEY_COUNT);
+		s.keyCodes = new String[keys];
+		s.keyCollected = new boolean[keys];
+		for (int i = 0; i < keys; i++) {
+			s.keyCodes[i] = in.readUTF();
+			s.keyCollected[i] = in.readBoolean();
+		}
+		s.keysCollected = in.readInt();
+		s.gameWon = in.readBoolean();
+
+		s.rows = in.readInt();
+		s.cols = in.readInt();
+		check(s.rows > 0 && s.cols > 0 && (long) s.rows * s.cols <= MAX_CELLS);
+		int size = s.rows * s.cols;
+		check(s.keysCollected >= 0 && s.keysCollected <= keys);
+		check(isCell(s.minerRow, s.minerCol, s));
+		s.readRuns(in);
+		int[][] hardness = readPairs(in, size);
+		s.hardnessCells = hardness[0];
+		s.hardnessValues = hardness[1];
+		int[][] keyCells = readPairs(in, size);
+		s.keyCells = keyCells[0];
+		s.keyIndices = keyCells[1];
+		for (int index : s.keyIndices) {
+			check(index >= 0 && index < keys);
+		}
+
+		int enemies = readCount(in, size);
+		s.enemyRows = new int[enemies];
+		s.enemyCols = new int[enemies];
+		s.enemyDirections = new int[enemies];
+		for (int i = 0; i < enemies; i++) {
+			s.enemyRows[i] = in.readInt();
+			s.enemyCols[i] = in.readInt();
+			s.enemyDirections[i] = in.readByte();
+			check(isCell(s.enemyRows[i], s.enemyCols[i], s));
+			check(s.enemyDirections[i] == 1 || s.enemyDirections[i] == -1);
+		}
+		s.nests = readCells(in, size);
+		s.torches = readCells(in, size);
+		return s;
+	}
+
+	/**
+	 * Checks a condition on the data being read.
+	 *
+	 * @throws IOException if it does not hold
+	 */
+	private static void check(boolean valid) throws IOException {
+		if (!valid) {
+			throw new IOException("Corrupt save");
+		}
+	}
+
+	private static boolean isCell(int row, int col, GameSnapshot s) {
+		return row >= 0 && row < s.rows && col >= 0 && col < s.cols;
+	}
+
+	private static <E extends Enum<E>> E readEnum(DataInputStream in, E[] values) throws IOException {
+		int ordinal = in.readUnsignedByte();
+		check(ordinal < values.length);
+		return values[ordinal];
+	}
+
+	/**
+	 * Reads an element count, which cannot exceed the number of cells.
+	 */
+	private static int readCount(DataInputStream in, int size) throws IOException {
+		int count = in.readInt();
+		check(count >= 0 && count <= size);
+		return count;
+	}
+
+	/**
+	 * Writes the tiles as runs of equal cell types: run count, then length and type per run.
+	 */
+	private void writeRuns(DataOutputStream out) throws IOException {
+		int runs = 0;
+		for (int i = 0; i < types.length; i++) {
+			if (i == 0 || types[i] != types[i - 1]) {
+				runs++;
+			}
+		}
+		out.writeInt(runs);
+		int start = 0;
+		for (int i = 1; i <= types.length; i++) {
+			if (i == types.length || types[i] != types[start]) {
+				out.writeInt(i - start);
+				out.writeByte(types[start]);
+				start = i;
+			}
+		}
+	}
+
+	private void readRuns(DataInputStream in) throws IOException {
+		types = new byte[rows * cols];
+		int runs = readCount(in, types.length);
+		int pos = 0;
+		for (int r = 0; r < runs; r++) {
+			int length = in.readInt();
+			byte type = in.readByte();
+			if (length < 0 || pos + length > types.length
+					|| type < 0 || type >= CellType.values().length) {
+				throw new IOException("Corrupt tile data");
+			}
+			Arrays.fill(types, pos, pos + length, type);
+			pos += length;
+		}
+		if (pos != types.length) {
+			throw new IOException("Corrupt tile data");
+		}
+	}
+
+	private static void writePairs(DataOutputStream out, int[] keys, int[] values) throws IOException {
+		out.writeInt(keys.length);
+		for (int i = 0; i < keys.length; i++) {
+			out.writeInt(keys[i]);
+			out.writeInt(values[i]);
+		}
+	}
+
+	/**
+	 * Reads packed cell index and value pairs for a map of the given number of cells.
+	 */
+	private static int[][] readPairs(DataInputStream in, int size) throws IOException {
+		int count = readCount(in, size);
+		int[][] pairs = new int[2][count];
+		for (int i = 0; i < count; i++) {
+			pairs[0][i] = in.readInt();
+			pairs[1][i] = in.readInt();
+			check(pairs[0][i] >= 0 && pairs[0][i] < size);
+		}
+		return pairs;
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		out.writeInt(values.length);
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	/**
+	 * Reads packed cell indices for a map of the given number of cells.
+	 */
+	private static int[] readCells(DataInputStream in, int size) throws IOException {
+		int[] values = new int[readCount(in, size)];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readInt();
+			check(values[i] >= 0 && values[i] < size);
+		}
+		return values;
+	}
+
+	// ========== GETTER METHODS ==========
+
+	/**
+	 * Gets the cell type stored for a cell.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 * @return the stored cell type
+	 */
+	public CellType getType(int row, int col) {
+		return CellType.values()[types[row * cols + col]];
+	}
+
+	/**
+	 * Gets the game tick the snapshot was taken at.
+	 *
+	 * @return the tick count
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+}
@@ -0,0 +1,233 @@
+package application;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Simulates fresh air and mine gas spreading through the open tiles of the map.
+ *
+ * <p>Two concentration fields are kept over the whole grid as double-buffered float arrays:
+ * <ul>
+ *   <li><strong>Air</strong> (0 to 1) flows in from the walkable surface, which is held at 1,
+ *       and slowly goes stale, so long tunnels far from the surface run low on it.</li>
+ *   <li><strong>Gas</strong> (0 and up) is trapped in coal seams and released into the tunnel
+ *       network when the coal is mined. It vents at the surface and slowly dissipates.</li>
+ * </ul>
+ * Each tick, every open cell moves towards the average of its open neighbours (an explicit
+ * diffusion step). Solid cells keep their values and block the flow. The update reads only the
+ * front buffers and writes only the back buffers, so stripes of rows are processed independently,
+ * in parallel on large maps.</p>
+ *
+ * <p>The miner's oxygen drain is derived from the concentrations at its cell through
+ * {@link #drainAt(int, int)}.</p>
+ */
+public class GasField {
+
+	/** Cell count from which stripes are updated with a parallel stream. */
+	private static final int PARALLEL_CELLS = 16_384;
+
+	/** Number of rows handled by one stripe. */
+	private static final int STRIPE_ROWS = 64;
+
+	/** Fraction of the difference to each open neighbour exchanged per tick. */
+	private static final float DIFFUSION = 0.2f;
+
+	/** Fraction of air that goes stale per tick. */
+	private static final float AIR_DECAY = 0.0005f;
+
+	/** Fraction of gas that dissipates per tick. */
+	private static final float GAS_DECAY = 0.0002f;
+
+	/** Amount of gas trapped in a coal tile. */
+	private static final float TRAPPED_GAS = 2f;
+
+	// Oxygen drain per second: base + scale * (1 - air) + scale * gas
+	private static final int BASE_DRAIN = 1;
+	private static final float AIR_DRAIN_SCALE = 3f;
+	private static final float GAS_DRAIN_SCALE = 4f;
+
+	private final Map map;
+	private final int rows;
+	private final int cols;
+
+	// Concentration buffers
+	private float[] air;
+	private float[] airNext;
+	private float[] gas;
+	private float[] gasNext;
+
+	// Cell flags
+	private final boolean[] open;
+	private final boolean[] surface;
+
+	private final IntConsumer stripeUpdate = this::updateStripe;
+
+	/**
+	 * Constructs a field for the given map. Open cells start with fresh air, and coal tiles
+	 * are filled with trapped gas.
+	 *
+	 * @param map the map the field covers
+	 */
+	public GasField(Map map) {
+		this.map = map;
+		this.rows = map.getRows();
+		this.cols = map.getCols();
+
+		int size = rows * cols;
+		air = new float[size];
+		airNext = new float[size];
+		gas = new float[size];
+		gasNext = new float[size];
+		open = new boolean[size];
+		surface = new boolean[size];
+
+		Cell[][] cells = map.getCells();
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				int i = r * cols + c;
+				CellType type = cells[r][c].getType();
+				open[i] = cells[r][c].isWalkable();
+				surface[i] = type == CellType.SKY_WALKABLE;
+				air[i] = open[i] ? 1f : 0f;
+				gas[i] = type == CellType.COAL ? TRAPPED_GAS : 0f;
+			}
+		}
+	}
+
+	/**
+	 * Advances the diffusion by one tick.
+	 */
+	public void update() {
+		int stripes = (rows + STRIPE_ROWS - 1) / STRIPE_ROWS;
+		if (rows * cols >= PARALLEL_CELLS) {
+			IntStream.range(0, stripes).parallel().forEach(stripeUpdate);
+		} else {
+			for (int s = 0; s < stripes; s++) {
+				updateStripe(s);
+			}
+		}
+
+		float[] swap = air;
+		air = airNext;
+		airNext = swap;
+		swap = gas;
+		gas = gasNext;
+		gasNext = swap;
+	}
+
+	/**
+	 * Computes the next values for one stripe of rows from the front buffers.
+	 */
+	private void updateStripe(int stripe) {
+		int fromRow = stripe * STRIPE_ROWS;
+		int toRow = Math.min(rows, fromRow + STRIPE_ROWS);
+
+		for (int r = fromRow; r < toRow; r++) {
+			for (int c = 0; c < cols; c++) {
+				int i = r * cols + c;
+				if (!open[i]) {
+					airNext[i] = air[i];
+					gasNext[i] = gas[i];
+					continue;
+				}
+				if (surface[i]) {
+					airNext[i] = 1f;
+					gasNext[i] = 0f;
+					continue;
+				}
+
+				float a = air[i];
+				float g = gas[i];
+				float airFlow = 0f;
+				float gasFlow = 0f;
+				if (r > 0 && open[i - cols]) {
+					airFlow += air[i - cols] - a;
+					gasFlow += gas[i - cols] - g;
+				}
+				if (r < rows - 1 && open[i + cols]) {
+					airFlow += air[i + cols] - a;
+					gasFlow += gas[i + cols] - g;
+				}
+				if (c > 0 && open[i - 1]) {
+					airFlow += air[i - 1] - a;
+					gasFlow += gas[i - 1] - g;
+				}
+				if (c < cols - 1 && open[i + 1]) {
+					airFlow += air[i + 1] - a;
+					gasFlow += gas[i + 1] - g;
+				}
+
+				airNext[i] = Math.max(0f, Math.min(1f, (a + DIFFUSION * airFlow) * (1f - AIR_DECAY)));
+				gasNext[i] = Math.max(0f, (g + DIFFUSION * gasFlow) * (1f - GAS_DECAY));
+			}
+		}
+	}
+
+	/**
+	 * Updates the field after a cell may have opened up or filled in. A newly opened cell takes
+	 * the average air of its open neighbours and releases any gas trapped in it. A filled cell
+	 * no longer holds air or gas.
+	 *
+	 * @param row the row of the changed cell
+	 * @param col the column of the changed cell
+	 */
+	public void updateCell(int row, int col) {
+		int i = row * cols + col;
+		boolean nowOpen = map.getCells()[row][col].isWalkable();
+		if (nowOpen == open[i]) {
+			return;
+		}
+		open[i] = nowOpen;
+
+		if (!nowOpen) {
+			air[i] = 0f;
+			gas[i] = 0f;
+			return;
+		}
+
+		float sum = 0f;
+		int count = 0;
+		if (row > 0 && open[i - cols]) { sum += air[i - cols]; count++; }
+		if (row < rows - 1 && open[i + cols]) { sum += air[i + cols]; count++; }
+		if (col > 0 && open[i - 1]) { sum += air[i - 1]; count++; }
+		if (col < cols - 1 && open[i + 1]) { sum += air[i + 1]; count++; }
+		air[i] = count > 0 ? sum / count : 0f;
+	}
+
+	/**
+	 * Gets the oxygen drain per second for a miner standing on the given cell.
+	 * Stale air and gas both make the miner use up oxygen faster.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 * @return the oxygen drain per second (at least 1)
+	 */
+	public int drainAt(int row, int col) {
+		int i = row * cols + col;
+		return BASE_DRAIN
+				+ Math.round(AIR_DRAIN_SCALE * (1f - air[i]))
+				+ Math.round(GAS_DRAIN_SCALE * gas[i]);
+	}
+
+	/**
+	 * Gets the air concentration at a cell.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 * @return the air concentration between 0 and 1
+	 */
+	public float getAir(int row, int col) {
+		return air[row * cols + col];
+	}
+
+	/**
+	 * Gets the gas concentration at a cell.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 * @return the gas concentration, 0 or more
+	 */
+	public float getGas(int row, int col) {
+		return gas[row * cols + col];
+	}
+}
@@ -0,0 +1,132 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * Makes loose material fall when the tile supporting it is removed.
+ *
+ * <p>Only {@link CellType#GRAVEL} is affected. Instead of scanning the whole grid, the system
+ * keeps a worklist of active cells that might have become unstable: the map activates the cell
+ * above every cell that changes, and a falling block activates its new position. Each step
+ * drops every active gravel block with open space below it by one row, so a cave-in settles in
+ * time proportional to the number of blocks that actually move.</p>
+ *
+ * <p>Gravel that falls onto the miner hurts it and shatters. Gravel resting on a bat stays
+ * active and falls once the bat has moved on.</p>
+ */
+public class GravitySystem {
+
+	/** Number of ticks between two fall steps. */
+	public static final int FALL_TICKS = 2;
+
+	/** Damage dealt to the miner by a falling block. */
+	private static final int CRUSH_DAMAGE = 15;
+
+	private final Map map;
+	private final Miner miner;
+	private final int rows;
+	private final int cols;
+
+	// Worklists of packed cell indices: processed this step, and queued for the next one
+	private int[] current = new int[32];
+	private int currentCount = 0;
+	private int[] next = new int[32];
+	private int nextCount = 0;
+	private final boolean[] queued;
+
+	/**
+	 * Constructs a new GravitySystem for the given map.
+	 *
+	 * @param map the map whose loose tiles fall
+	 * @param miner the miner that falling blocks can hurt
+	 */
+	public GravitySystem(Map map, Miner miner) {
+		this.map = map;
+		this.miner = miner;
+		this.rows = map.getRows();
+		this.cols = map.getCols();
+		this.queued = new boolean[rows * cols];
+	}
+
+	/**
+	 * Marks a cell as possibly unstable, to be checked at the next step.
+	 * Out-of-bounds positions are ignored.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 */
+	public void activate(int row, int col) {
+		if (row < 0 || col < 0 || row >= rows || col >= cols) {
+			return;
+		}
+		int cell = row * cols + col;
+		if (queued[cell]) {
+			return;
+		}
+		queued[cell] = true;
+		if (nextCount == next.length) {
+			next = Arrays.copyOf(next, nextCount * 2);
+		}
+		next[nextCount++] = cell;
+	}
+
+	/**
+	 * Drops every active gravel block with open space below it by one row.
+	 *
+	 * @return the number of blocks that moved or shattered
+	 */
+	public int step() {
+		if (nextCount == 0) {
+			return 0;
+		}
+
+		int[] swap = current;
+		current = next;
+		next = swap;
+		currentCount = nextCount;
+		nextCount = 0;
+		for (int i = 0; i < currentCount; i++) {
+			queued[current[i]] = false;
+		}
+
+		Cell[][] cells = map.getCells();
+		int moved = 0;
+		for (int i = 0; i < currentCount; i++) {
+			int row = current[i] / cols;
+			int col = current[i] % cols;
+			Cell cell = cells[row][col];
+			if (cell.getType() != CellType.GRAVEL || row + 1 >= rows) {
+				continue;
+			}
+
+			Cell below = cells[row + 1][col];
+			if (below.getType() != CellType.DESTROYED) {
+				continue;
+			}
+			if (below.hasEnemy()) {
+				activate(row, col);
+				continue;
+			}
+
+			if (below.hasMiner()) {
+				miner.hurt(CRUSH_DAMAGE);
+				cell.setContents(CellType.DESTROYED);
+			} else {
+				below.setContents(CellType.GRAVEL);
+				cell.setContents(CellType.DESTROYED);
+				activate(row + 1, col);
+			}
+			moved++;
+		}
+		return moved;
+	}
+
+	/**
+	 * Checks if any cell is waiting to be checked.
+	 *
+	 * @return true if the next step has work to do, false otherwise
+	 */
+	public boolean isActive() {
+		return nextCount > 0;
+	}
+}
@@ -0,0 +1,681 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical (HPA*-style) pathfinder over the walkable cells of a {@link Map}.
+ *
+ * <p>The grid is split into square clusters of {@value #CLUSTER_SIZE} cells. Wherever two
+ * neighbouring clusters share an open border, an entrance is placed on both sides of it, and
+ * the walking distances between all entrances of the same cluster are precomputed. A long
+ * query first searches this small abstract graph of entrances and then refines only the
+ * clusters the chosen route passes through.</p>
+ *
+ * <p>When a cell changes walkability (for example after {@link Cell#mineCell()}), only the
+ * borders of its cluster and the entrance tables of that cluster and its four neighbours are
+ * rebuilt.</p>
+ *
+ * <p>All search state is kept in preallocated primitive arrays that are stamped with a
+ * generation counter instead of being cleared, so a query does not allocate apart from the
+ * returned path. Cells are addressed by their packed index {@code row * cols + col}.</p>
+ */
+public class HierarchicalPathfinder {
+
+	/** Width and height of a cluster in cells. */
+	public static final int CLUSTER_SIZE = 10;
+
+	/** Entrance runs at least this long get a node at both ends instead of one in the middle. */
+	private static final int LONG_ENTRANCE = 6;
+
+	// Direction bits for entrances crossing a cluster border
+	private static final int EAST = 1;
+	private static final int WEST = 2;
+	private static final int SOUTH = 4;
+	private static final int NORTH = 8;
+
+	private final Map map;
+	private final int rows;
+	private final int cols;
+	private final int clusterRows;
+	private final int clusterCols;
+
+	// Grid snapshot
+	private final boolean[] walkable;
+	private final byte[] entranceMask;
+
+	// Abstract graph: entrance cells and their intra-cluster distance matrix per cluster
+	private final int[][] clusterNodes;
+	private final int[][] clusterDist;
+	private final int[] nodeSlot;
+
+	// Search scratch space, indexed by cell
+	private final int[] gScore;
+	private final int[] parent;
+	private final int[] stamp;
+	private final boolean[] closed;
+	private int generation;
+
+	// BFS scratch space, indexed by cell
+	private final int[] bfsDist;
+	private final int[] bfsParent;
+	private final int[] bfsStamp;
+	private final int[] bfsQueue;
+	private int bfsGeneration;
+
+	// Temporary edges from the query start and goal to their cluster entrances
+	private int[] startEdges = new int[0];
+	private int[] goalEdges = new int[0];
+
+	private final IntHeap open;
+
+	/**
+	 * Constructs a pathfinder for the given map and builds the full cluster graph.
+	 *
+	 * @param map the map whose walkable cells are searched
+	 */
+	public HierarchicalPathfinder(Map map) {
+		this.map = map;
+		this.rows = map.getRows();
+		this.cols = map.getCols();
+		this.clusterRows = (rows + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+		this.clusterCols = (cols + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+
+		int size = rows * cols;
+		walkable = new boolean[size];
+		entranceMask = new byte[size];
+		clusterNodes = new int[clusterRows * clusterCols][];
+		clusterDist = new int[clusterRows * clusterCols][];
+		nodeSlot = new int[size];
+
+		gScore = new int[size];
+		parent = new int[size];
+		stamp = new int[size];
+		closed = new boolean[size];
+		bfsDist = new int[size];
+		bfsParent = new int[size];
+		bfsStamp = new int[size];
+		bfsQueue = new int[size];
+		open = new IntHeap(size);
+
+		rebuildAll();
+	}
+
+	// ========== GRAPH MAINTENANCE ==========
+
+	/**
+	 * Rebuilds every cluster from the current state of the map.
+	 */
+	public void rebuildAll() {
+		Cell[][] cells = map.getCells();
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				walkable[r * cols + c] = cells[r][c].isWalkable();
+			}
+		}
+
+		Arrays.fill(entranceMask, (byte) 0);
+		for (int cy = 0; cy < clusterRows; cy++) {
+			for (int cx = 0; cx < clusterCols; cx++) {
+				buildEastBorder(cy, cx);
+				buildSouthBorder(cy, cx);
+			}
+		}
+		for (int cluster = 0; cluster < clusterNodes.length; cluster++) {
+			buildCluster(cluster);
+		}
+	}
+
+	/**
+	 * Updates the graph after the walkability of a single cell may have changed.
+	 * Only the cluster containing the cell and its direct neighbours are rebuilt.
+	 *
+	 * @param row the row of the changed cell
+	 * @param col the column of the changed cell
+	 */
+	public void updateCell(int row, int col) {
+		updateRegion(row, col, row, col);
+	}
+
+	/**
+	 * Updates the graph after the walkability of a rectangular block of cells may have changed.
+	 * Every affected cluster is rebuilt once, however many of its cells changed.
+	 *
+	 * @param fromRow the first row of the block (inclusive)
+	 * @param fromCol the first column of the block (inclusive)
+	 * @param toRow the last row of the block (inclusive)
+	 * @param toCol the last column of the block (inclusive)
+	 */
+	public void updateRegion(int fromRow, int fromCol, int toRow, int toCol) {
+		fromRow = Math.max(0, fromRow);
+		fromCol = Math.max(0, fromCol);
+		toRow = Math.min(rows - 1, toRow);
+		toCol = Math.min(cols - 1, toCol);
+
+		Cell[][] cells = map.getCells();
+		boolean changed = false;
+		for (int r = fromRow; r <= toRow; r++) {
+			for (int c = fromCol; c <= toCol; c++) {
+				boolean now = cells[r][c].isWalkable();
+				if (walkable[r * cols + c] != now) {
+					walkable[r * cols + c] = now;
+					changed = true;
+				}
+			}
+		}
+		if (!changed) {
+			return;
+		}
+
+		int cy0 = fromRow / CLUSTER_SIZE;
+		int cx0 = fromCol / CLUSTER_SIZE;
+		int cy1 = toRow / CLUSTER_SIZE;
+		int cx1 = toCol / CLUSTER_SIZE;
+
+		// Re-place the entrances on every border of the changed clusters
+		for (int cy = cy0; cy <= cy1; cy++) {
+			for (int cx = cx0; cx <= cx1; cx++) {
+				buildEastBorder(cy, cx);
+				buildSouthBorder(cy, cx);
+				if (cx > 0) {
+					buildEastBorder(cy, cx - 1);
+				}
+				if (cy > 0) {
+					buildSouthBorder(cy - 1, cx);
+				}
+			}
+		}
+
+		// Their entrance sets and those of the neighbours may have changed
+		for (int cy = Math.max(0, cy0 - 1); cy <= Math.min(clusterRows - 1, cy1 + 1); cy++) {
+			for (int cx = Math.max(0, cx0 - 1); cx <= Math.min(clusterCols - 1, cx1 + 1); cx++) {
+				buildCluster(cy * clusterCols + cx);
+			}
+		}
+	}
+
+	/**
+	 * Places entrances on the border between cluster (cy, cx) and its eastern neighbour.
+	 */
+	private void buildEastBorder(int cy, int cx) {
+		int c = (cx + 1) * CLUSTER_SIZE - 1;
+		if (c + 1 >= cols) {
+			return;
+		}
+		int r0 = cy * CLUSTER_SIZE;
+		int r1 = Math.min(rows, r0 + CLUSTER_SIZE);
+
+		for (int r = r0; r < r1; r++) {
+			entranceMask[r * cols + c] &= ~EAST;
+			entranceMask[r * cols + c + 1] &= ~WEST;
+		}
+
+		int runStart = -1;
+		for (int r = r0; r <= r1; r++) {
+			boolean open = r < r1 && walkable[r * cols + c] && walkable[r * cols + c + 1];
+			if (open && runStart < 0) {
+				runStart = r;
+			} else if (!open && runStart >= 0) {
+				int runEnd = r - 1;
+				if (runEnd - runStart + 1 >= LONG_ENTRANCE) {
+					markEastEntrance(runStart, c);
+					markEastEntrance(runEnd, c);
+				} else {
+					markEastEntrance((runStart + runEnd) / 2, c);
+				}
+				runStart = -1;
+			}
+		}
+	}
+
+	/**
+	 * Places entrances on the border between cluster (cy, cx) and its southern neighbour.
+	 */
+	private void buildSouthBorder(int cy, int cx) {
+		int r = (cy + 1) * CLUSTER_SIZE - 1;
+		if (r + 1 >= rows) {
+			return;
+		}
+		int c0 = cx * CLUSTER_SIZE;
+		int c1 = Math.min(cols, c0 + CLUSTER_SIZE);
+
+		for (int c = c0; c < c1; c++) {
+			entranceMask[r * cols + c] &= ~SOUTH;
+			entranceMask[(r + 1) * cols + c] &= ~NORTH;
+		}
+
+		int runStart = -1;
+		for (int c = c0; c <= c1; c++) {
+			boolean open = c < c1 && walkable[r * cols + c] && walkable[(r + 1) * cols + c];
+			if (open && runStart < 0) {
+				runStart = c;
+			} else if (!open && runStart >= 0) {
+				int runEnd = c - 1;
+				if (runEnd - runStart + 1 >= LONG_ENTRANCE) {
+					markSouthEntrance(r, runStart);
+					markSouthEntrance(r, runEnd);
+				} else {
+					markSouthEntrance(r, (runStart + runEnd) / 2);
+				}
+				runStart = -1;
+			}
+		}
+	}
+
+	private void markEastEntrance(int row, int col) {
+		entranceMask[row * cols + col] |= EAST;
+		entranceMask[row * cols + col + 1] |= WEST;
+	}
+
+	private void markSouthEntrance(int row, int col) {
+		entranceMask[row * cols + col] |= SOUTH;
+		entranceMask[(row + 1) * cols + col] |= NORTH;
+	}
+
+	/**
+	 * Collects the entrance cells of a cluster and computes their pairwise walking distances.
+	 */
+	private void buildCluster(int cluster) {
+		int r0 = (cluster / clusterCols) * CLUSTER_SIZE;
+		int c0 = (cluster % clusterCols) * CLUSTER_SIZE;
+		int r1 = Math.min(rows, r0 + CLUSTER_SIZE);
+		int c1 = Math.min(cols, c0 + CLUSTER_SIZE);
+
+		int count = 0;
+		for (int r = r0; r < r1; r++) {
+			for (int c = c0; c < c1; c++) {
+				if (entranceMask[r * cols + c] != 0) {
+					count++;
+				}
+			}
+		}
+
+		int[] nodes = new int[count];
+		int n = 0;
+		for (int r = r0; r < r1; r++) {
+			for (int c = c0; c < c1; c++) {
+				if (entranceMask[r * cols + c] != 0) {
+					nodeSlot[r * cols + c] = n;
+					nodes[n++] = r * cols + c;
+				}
+			}
+		}
+
+		int[] dist = new int[count * count];
+		for (int i = 0; i < count; i++) {
+			bfsInCluster(nodes[i], cluster);
+			for (int j = 0; j < count; j++) {
+				dist[i * count + j] = reached(nodes[j]) ? bfsDist[nodes[j]] : -1;
+			}
+		}
+
+		clusterNodes[cluster] = nodes;
+		clusterDist[cluster] = dist;
+	}
+
+	// ========== QUERIES ==========
+
+	/**
+	 * Finds a near-shortest 4-directional walking path between two cells.
+	 *
+	 * @param fromRow the start row
+	 * @param fromCol the start column
+	 * @param toRow the goal row
+	 * @param toCol the goal column
+	 * @return the packed cell indices of the path, excluding the start and including the goal;
+	 *         an empty array if start and goal coincide, or {@code null} if the goal is unreachable
+	 */
+	public int[] findPath(int fromRow, int fromCol, int toRow, int toCol) {
+		if (!inBounds(fromRow, fromCol) || !inBounds(toRow, toCol)) {
+			return null;
+		}
+		int start = fromRow * cols + fromCol;
+		int goal = toRow * cols + toCol;
+		if (start == goal) {
+			return new int[0];
+		}
+		if (!walkable[goal]) {
+			return null;
+		}
+
+		int startCluster = clusterOf(start);
+		int goalCluster = clusterOf(goal);
+
+		// A direct route inside one cluster needs no abstract search
+		if (startCluster == goalCluster) {
+			bfsInCluster(start, startCluster);
+			if (reached(goal)) {
+				return tracePath(start, goal);
+			}
+		}
+
+		int[] abstractPath = searchAbstract(start, goal, startCluster, goalCluster);
+		if (abstractPath == null) {
+			return null;
+		}
+		return refine(abstractPath);
+	}
+
+	/**
+	 * Finds a path to the closest walkable cell next to a target that cannot be entered,
+	 * such as an unmined key block or the final chest.
+	 *
+	 * @param fromRow the start row
+	 * @param fromCol the start column
+	 * @param targetRow the target row
+	 * @param targetCol the target column
+	 * @return the path as described in {@link #findPath}, or {@code null} if no side is reachable
+	 */
+	public int[] findPathToAdjacent(int fromRow, int fromCol, int targetRow, int targetCol) {
+		int[] best = null;
+		int[][] sides = { {-1, 0}, {1, 0}, {0, -1}, {0, 1} };
+		for (int[] d : sides) {
+			int[] path = findPath(fromRow, fromCol, targetRow + d[0], targetCol + d[1]);
+			if (path != null && (best == null || path.length < best.length)) {
+				best = path;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Runs A* over the entrance graph, with the start and goal temporarily linked to the
+	 * entrances of their clusters.
+	 *
+	 * @return the abstract path as packed cell indices from start to goal, or {@code null}
+	 */
+	private int[] searchAbstract(int start, int goal, int startCluster, int goalCluster) {
+		startEdges = linkToCluster(start, startCluster, startEdges);
+		goalEdges = linkToCluster(goal, goalCluster, goalEdges);
+
+		nextGeneration();
+		open.clear();
+		visit(start, 0, -1);
+		open.push(start, priority(0, heuristic(start, goal)));
+
+		while (!open.isEmpty()) {
+			int current = open.pop();
+			if (closed[current]) {
+				continue;
+			}
+			closed[current] = true;
+			if (current == goal) {
+				return traceAbstract(start, goal);
+			}
+
+			int g = gScore[current];
+			int cluster = clusterOf(current);
+
+			// Temporary edges out of the start cell
+			if (current == start) {
+				int[] nodes = clusterNodes[startCluster];
+				for (int i = 0; i < nodes.length; i++) {
+					relax(current, nodes[i], g, startEdges[i], goal);
+				}
+			}
+
+			// Edges inside the cluster
+			int[] nodes = clusterNodes[cluster];
+			if (entranceMask[current] != 0) {
+				int slot = nodeSlot[current];
+				int[] dist = clusterDist[cluster];
+				for (int j = 0; j < nodes.length; j++) {
+					if (j != slot) {
+						relax(current, nodes[j], g, dist[slot * nodes.length + j], goal);
+					}
+				}
+
+				// Temporary edge into the goal
+				if (cluster == goalCluster) {
+					relax(current, goal, g, goalEdges[slot], goal);
+				}
+
+				// Edges across cluster borders
+				int mask = entranceMask[current];
+				if ((mask & EAST) != 0) relax(current, current + 1, g, 1, goal);
+				if ((mask & WEST) != 0) relax(current, current - 1, g, 1, goal);
+				if ((mask & SOUTH) != 0) relax(current, current + cols, g, 1, goal);
+				if ((mask & NORTH) != 0) relax(current, current - cols, g, 1, goal);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Computes distances from a cell to every entrance of its cluster.
+	 */
+	private int[] linkToCluster(int cell, int cluster, int[] buffer) {
+		int[] nodes = clusterNodes[cluster];
+		int[] edges = buffer.length >= nodes.length ? buffer : new int[nodes.length];
+		bfsInCluster(cell, cluster);
+		for (int i = 0; i < nodes.length; i++) {
+			edges[i] = reached(nodes[i]) ? bfsDist[nodes[i]] : -1;
+		}
+		return edges;
+	}
+
+	private void relax(int from, int to, int g, int cost, int goal) {
+		if (cost < 0 || closed(to)) {
+			return;
+		}
+		int tentative = g + cost;
+		if (stamp[to] != generation || tentative < gScore[to]) {
+			visit(to, tentative, from);
+			open.push(to, priority(tentative, heuristic(to, goal)));
+		}
+	}
+
+	private void visit(int cell, int g, int from) {
+		stamp[cell] = generation;
+		closed[cell] = false;
+		gScore[cell] = g;
+		parent[cell] = from;
+	}
+
+	private boolean closed(int cell) {
+		return stamp[cell] == generation && closed[cell];
+	}
+
+	private int[] traceAbstract(int start, int goal) {
+		int length = 1;
+		for (int cell = goal; cell != start; cell = parent[cell]) {
+			length++;
+		}
+		int[] path = new int[length];
+		int i = length - 1;
+		for (int cell = goal; cell != start; cell = parent[cell]) {
+			path[i--] = cell;
+		}
+		path[0] = start;
+		return path;
+	}
+
+	/**
+	 * Expands an abstract path into concrete steps. Consecutive nodes on the same side of a
+	 * border are joined with a BFS limited to their cluster; nodes across a border are adjacent.
+	 */
+	private int[] refine(int[] abstractPath) {
+		int length = gScore[abstractPath[abstractPath.length - 1]];
+		int[] path = new int[length];
+		int written = 0;
+
+		for (int i = 1; i < abstractPath.length; i++) {
+			int from = abstractPath[i - 1];
+			int to = abstractPath[i];
+			if (clusterOf(from) != clusterOf(to)) {
+				path[written++] = to;
+				continue;
+			}
+			bfsInCluster(from, clusterOf(from));
+			int[] segment = tracePath(from, to);
+			System.arraycopy(segment, 0, path, written, segment.length);
+			written += segment.length;
+		}
+		return path;
+	}
+
+	// ========== GRID HELPERS ==========
+
+	/**
+	 * Breadth-first search from a cell that never leaves the given cluster.
+	 * Results are left in {@code bfsDist} and {@code bfsParent}, valid for the current BFS generation.
+	 */
+	private void bfsInCluster(int source, int cluster) {
+		int r0 = (cluster / clusterCols) * CLUSTER_SIZE;
+		int c0 = (cluster % clusterCols) * CLUSTER_SIZE;
+		int r1 = Math.min(rows, r0 + CLUSTER_SIZE);
+		int c1 = Math.min(cols, c0 + CLUSTER_SIZE);
+
+		if (++bfsGeneration == 0) {
+			Arrays.fill(bfsStamp, 0);
+			bfsGeneration = 1;
+		}
+
+		int head = 0;
+		int tail = 0;
+		bfsQueue[tail++] = source;
+		bfsStamp[source] = bfsGeneration;
+		bfsDist[source] = 0;
+		bfsParent[source] = -1;
+
+		while (head < tail) {
+			int cell = bfsQueue[head++];
+			int r = cell / cols;
+			int c = cell % cols;
+			int d = bfsDist[cell] + 1;
+			if (r > r0) tail = enqueue(cell - cols, cell, d, tail);
+			if (r < r1 - 1) tail = enqueue(cell + cols, cell, d, tail);
+			if (c > c0) tail = enqueue(cell - 1, cell, d, tail);
+			if (c < c1 - 1) tail = enqueue(cell + 1, cell, d, tail);
+		}
+	}
+
+	private int enqueue(int cell, int from, int d, int tail) {
+		if (!walkable[cell] || bfsStamp[cell] == bfsGeneration) {
+			return tail;
+		}
+		bfsStamp[cell] = bfsGeneration;
+		bfsDist[cell] = d;
+		bfsParent[cell] = from;
+		bfsQueue[tail] = cell;
+		return tail + 1;
+	}
+
+	private boolean reached(int cell) {
+		return bfsStamp[cell] == bfsGeneration;
+	}
+
+	/**
+	 * Reads a path out of the last BFS, excluding {@code from} and including {@code to}.
+	 */
+	private int[] tracePath(int from, int to) {
+		int[] path = new int[bfsDist[to]];
+		int i = path.length - 1;
+		for (int cell = to; cell != from; cell = bfsParent[cell]) {
+			path[i--] = cell;
+		}
+		return path;
+	}
+
+	private void nextGeneration() {
+		if (++generation == 0) {
+			Arrays.fill(stamp, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Orders the open set by f = g + h, breaking ties towards the larger g so that the
+	 * search runs straight at the goal instead of flooding equal-cost plateaus.
+	 */
+	private static long priority(int g, int h) {
+		return ((long) (g + h) << 32) - g;
+	}
+
+	private int heuristic(int cell, int goal) {
+		return Math.abs(cell / cols - goal / cols) + Math.abs(cell % cols - goal % cols);
+	}
+
+	private int clusterOf(int cell) {
+		return (cell / cols / CLUSTER_SIZE) * clusterCols + (cell % cols) / CLUSTER_SIZE;
+	}
+
+	private boolean inBounds(int row, int col) {
+		return row >= 0 && col >= 0 && row < rows && col < cols;
+	}
+
+	/**
+	 * Gets the number of columns of the searched grid, needed to unpack cell indices.
+	 *
+	 * @return the column count
+	 */
+	public int getCols() {
+		return cols;
+	}
+
+	/**
+	 * Minimal binary min-heap of cell indices keyed by a long priority.
+	 * Stale entries are allowed and skipped by the caller through the closed set.
+	 */
+	private static final class IntHeap {
+		private int[] cells;
+		private long[] keys;
+		private int size;
+
+		IntHeap(int capacity) {
+			cells = new int[Math.max(16, capacity)];
+			keys = new long[cells.length];
+		}
+
+		void clear() {
+			size = 0;
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		void push(int cell, long key) {
+			if (size == cells.length) {
+				cells = Arrays.copyOf(cells, size * 2);
+				keys = Arrays.copyOf(keys, size * 2);
+			}
+			int i = size++;
+			while (i > 0) {
+				int p = (i - 1) >>> 1;
+				if (keys[p] <= key) {
+					break;
+				}
+				cells[i] = cells[p];
+				keys[i] = keys[p];
+				i = p;
+			}
+			cells[i] = cell;
+			keys[i] = key;
+		}
+
+		int pop() {
+			int top = cells[0];
+			int cell = cells[--size];
+			long key = keys[size];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && keys[child + 1] < keys[child]) {
+					child++;
+				}
+				if (keys[child] >= key) {
+					break;
+				}
+				cells[i] = cells[child];
+				keys[i] = keys[child];
+				i = child;
+			}
+			cells[i] = cell;
+			keys[i] = key;
+			return top;
+		}
+	}
+}
@@ -0,0 +1,221 @@
+package application;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Records the player commands seen by a {@link GameModel} into a compact binary log.
+ *
+ * <p>Because every source of randomness is seeded (see {@link GameRandom}) and the session runs
+ * in deterministic mode, the seed, the starting choices and the list of commands with the tick
+ * each arrived at are enough to reproduce a whole game. The log is written as:
+ * <ul>
+ *   <li>a header: magic {@code MQR}, a format version, the 8-byte seed, the difficulty and the
+ *       character image name</li>
+ *   <li>one entry per command: the number of ticks since the previous entry as a varint, a
+ *       one-byte opcode and the command's arguments as varints</li>
+ *   <li>a final {@link Command#END} entry marking the tick the recording stopped at</li>
+ * </ul>
+ * Most entries take three to five bytes, so a full run fits in about a kilobyte.
+ * Recordings are played back by {@link InputReplayer}.</p>
+ */
+public class InputRecorder {
+
+	/**
+	 * The recorded commands, with their opcodes.
+	 */
+	public enum Command {
+		/** End of the recording. */
+		END,
+		/** {@link GameModel#moveMiner}: direction ordinal. */
+		MOVE,
+		/** {@link GameModel#mineCell}: row, column. */
+		MINE,
+		/** {@link GameModel#clearPath}. */
+		PATH_CLEAR,
+		/** {@link GameModel#addToPath}: row, column. */
+		PATH_ADD,
+		/** {@link GameModel#moveAlongPath}. */
+		PATH_GO,
+		/** {@link GameModel#walkTo}: row, column. */
+		WALK_TO,
+		/** {@link GameModel#cancelWalk}. */
+		CANCEL_WALK,
+		/** {@link GameModel#buyPickaxeUpgrade}. */
+		BUY_PICKAXE,
+		/** {@link GameModel#buyOxygenUpgrade}. */
+		BUY_OXYGEN,
+		/** {@link GameModel#buyBomb}. */
+		BUY_BOMB,
+		/** {@link GameModel#detonateBomb}. */
+		BOMB,
+		/** {@link GameModel#toggleTorch}. */
+		TORCH,
+		/** {@link GameModel#submitChestCode}: length, characters. */
+		CHEST_CODE,
+		/** {@link GameModel#rewind}: ticks. */
+		REWIND
+	}
+
+	/** File magic and format version. */
+	static final byte[] MAGIC = {'M', 'Q', 'R'};
+	static final int VERSION = 1;
+
+	private byte[] data = new byte[256];
+	private int length = 0;
+	private long lastTick = 0;
+	private boolean finished = false;
+
+	/**
+	 * Constructs a recorder and writes the header for the given session.
+	 *
+	 * @param seed the session seed
+	 * @param difficulty the difficulty of the session
+	 * @param characterImage the character image of the session
+	 */
+	public InputRecorder(long seed, Difficulty difficulty, String characterImage) {
+		for (byte b : MAGIC) {
+			writeByte(b);
+		}
+		writeByte(VERSION);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			writeByte((int) (seed >>> shift));
+		}
+		writeByte(difficulty.ordinal());
+		writeString(characterImage);
+	}
+
+	/**
+	 * Records a command without arguments.
+	 *
+	 * @param tick the game tick the command arrived at
+	 * @param command the command
+	 */
+	public void record(long tick, Command command) {
+		writeHead(tick, command);
+	}
+
+	/**
+	 * Records a command with one argument.
+	 *
+	 * @param tick the game tick the command arrived at
+	 * @param command the command
+	 * @param arg the argument
+	 */
+	public void record(long tick, Command command, int arg) {
+		if (writeHead(tick, command)) {
+			writeVarint(arg);
+		}
+	}
+
+	/**
+	 * Records a command with a cell position as arguments.
+	 *
+	 * @param tick the game tick the command arrived at
+	 * @param command the command
+	 * @param row the row argument
+	 * @param col the column argument
+	 */
+	public void record(long tick, Command command, int row, int col) {
+		if (writeHead(tick, command)) {
+			writeVarint(row);
+			writeVarint(col);
+		}
+	}
+
+	/**
+	 * Records a command with a text argument.
+	 *
+	 * @param tick the game tick the command arrived at
+	 * @param command the command
+	 * @param text the argument
+	 */
+	public void record(long tick, Command command, String text) {
+		if (writeHead(tick, command)) {
+			writeString(text);
+		}
+	}
+
+	/**
+	 * Marks the end of the recording at the given tick. Later commands are ignored.
+	 *
+	 * @param tick the tick the recording stops at
+	 */
+	public void finish(long tick) {
+		if (!finished) {
+			writeHead(tick, Command.END);
+			finished = true;
+		}
+	}
+
+	/**
+	 * Gets a copy of the recording written so far.
+	 *
+	 * @return the recorded bytes
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(data, length);
+	}
+
+	/**
+	 * Writes the recording to a file.
+	 *
+	 * @param path the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path path) throws IOException {
+		Files.write(path, toByteArray());
+	}
+
+	/**
+	 * Gets the size of the recording in bytes.
+	 *
+	 * @return the recorded length
+	 */
+	public int size() {
+		return length;
+	}
+
+	// ========== ENCODING ==========
+
+	/**
+	 * Writes the tick delta and opcode of an entry.
+	 *
+	 * @return true if the entry was written, false if the recording is finished
+	 */
+	private boolean writeHead(long tick, Command command) {
+		if (finished) {
+			return false;
+		}
+		writeVarint(tick - lastTick);
+		lastTick = tick;
+		writeByte(command.ordinal());
+		return true;
+	}
+
+	private void writeString(String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		writeVarint(bytes.length);
+		for (byte b : bytes) {
+			writeByte(b);
+		}
+	}
+
+	private void writeVarint(long value) {
+		while ((value & ~0x7FL) != 0) {
+			writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		writeByte((int) value);
+	}
+
+	private void writeByte(int b) {
+		if (length == data.length) {
+			data = Arrays.copyOf(data, length * 2);
+		}
+		data[length++] = (byte) b;
+	}
+}
@@ -0,0 +1,245 @@
+package application;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Plays back a recording made by {@link InputRecorder}.
+ *
+ * <p>The replayer creates a deterministic {@link GameModel} from the recording's header and
+ * feeds it the recorded commands at the ticks they originally arrived at. It can drive the
+ * model on its own with {@link #runHeadless()}, ticking as fast as the machine allows, or be
+ * hooked into a {@link GameLoop} with {@link GameLoop#setTickHook(Runnable)} so that
+ * {@link #applyDue()} runs before every tick and the game plays out on screen at the loop's
+ * speed.</p>
+ *
+ * <p>The model's cells are JavaFX controls, so a JavaFX toolkit must be running, and all calls
+ * must be made on the JavaFX application thread. Without a display, the Monocle headless
+ * platform can be used.</p>
+ */
+public class InputReplayer {
+
+	private final byte[] data;
+	private int pos;
+
+	private final long seed;
+	private final Difficulty difficulty;
+	private final String characterImage;
+	private final GameModel model;
+
+	// Tick of the next entry, and whether the end entry has been reached
+	private long nextTick;
+	private boolean finished = false;
+
+	/**
+	 * Constructs a replayer for a recording and creates the model it will drive.
+	 *
+	 * @param recording the bytes written by an {@link InputRecorder}
+	 * @throws IllegalArgumentException if the data is not a recording of a supported version
+	 */
+	public InputReplayer(byte[] recording) {
+		this.data = recording;
+		if (data.length < InputRecorder.MAGIC.length + 1
+				|| !Arrays.equals(Arrays.copyOf(data, InputRecorder.MAGIC.length), InputRecorder.MAGIC)) {
+			throw new IllegalArgumentException("Not a Mine Quest recording");
+		}
+		pos = InputRecorder.MAGIC.length;
+		int version = readByte();
+		if (version != InputRecorder.VERSION) {
+			throw new IllegalArgumentException("Unsupported recording version " + version);
+		}
+
+		long s = 0;
+		for (int i = 0; i < 8; i++) {
+			s = (s << 8) | readByte();
+		}
+		this.seed = s;
+		this.difficulty = readEnum(Difficulty.values(), "difficulty");
+		this.characterImage = readString();
+
+		this.model = new GameModel(characterImage, difficulty, seed);
+		model.setDeterministic(true);
+		nextTick = readVarint();
+	}
+
+	/**
+	 * Loads a recording from a file.
+	 *
+	 * @param path the recording file
+	 * @return a replayer for the recording
+	 * @throws IOException if the file cannot be read
+	 */
+	public static InputReplayer load(Path path) throws IOException {
+		return new InputReplayer(Files.readAllBytes(path));
+	}
+
+	/**
+	 * Applies every recorded command that arrived at the model's current tick.
+	 * Does nothing once the end of the recording has been reached. A corrupt or truncated
+	 * command ends the replay with a warning, leaving the game as it is.
+	 */
+	public void applyDue() {
+		try {
+			while (!finished && nextTick == model.getTickCount()) {
+				apply(readEnum(InputRecorder.Command.values(), "command"));
+				if (!finished) {
+					nextTick += readVarint();
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			GameLog.warn(GameLog.Category.IO, "Replay stopped at byte %d: %s", pos, e.getMessage());
+			finished = true;
+		}
+	}
+
+	/**
+	 * Runs the whole recording without a game loop, ticking as fast as possible.
+	 * Stops at the end of the recording or when the game ends.
+	 *
+	 * @return the number of ticks run
+	 */
+	public long runHeadless() {
+		long start = model.getTickCount();
+		while (true) {
+			applyDue();
+			if (finished || model.isGameOver()) {
+				break;
+			}
+			model.tick();
+		}
+		return model.getTickCount() - start;
+	}
+
+	/**
+	 * Executes one recorded command on the model.
+	 */
+	private void apply(InputRecorder.Command command) {
+		switch (command) {
+			case END -> finished = true;
+			case MOVE -> model.moveMiner(readEnum(GameModel.Direction.values(), "direction"));
+			case MINE -> model.mineCell(readIndex(model.getMap().getRows(), "row"),
+					readIndex(model.getMap().getCols(), "column"));
+			case PATH_CLEAR -> model.clearPath();
+			case PATH_ADD -> model.addToPath(readIndex(model.getMap().getRows(), "row"),
+					readIndex(model.getMap().getCols(), "column"));
+			case PATH_GO -> model.moveAlongPath();
+			case WALK_TO -> model.walkTo(readIndex(model.getMap().getRows(), "row"),
+					readIndex(model.getMap().getCols(), "column"));
+			case CANCEL_WALK -> model.cancelWalk();
+			case BUY_PICKAXE -> model.buyPickaxeUpgrade();
+			case BUY_OXYGEN -> model.buyOxygenUpgrade();
+			case BUY_BOMB -> model.buyBomb();
+			case BOMB -> model.detonateBomb();
+			case TORCH -> model.toggleTorch();
+			case CHEST_CODE -> model.submitChestCode(readString());
+			case REWIND -> model.rewind((int) readVarint());
+		}
+	}
+
+	// ========== GETTER METHODS ==========
+
+	/**
+	 * Gets the model driven by this replayer.
+	 *
+	 * @return the game model
+	 */
+	public GameModel getModel() {
+		return model;
+	}
+
+	/**
+	 * Checks if the end of the recording has been reached.
+	 *
+	 * @return true if every command has been applied, false otherwise
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Gets the seed stored in the recording.
+	 *
+	 * @return the session seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the difficulty stored in the recording.
+	 *
+	 * @return the session difficulty
+	 */
+	public Difficulty getDifficulty() {
+		return difficulty;
+	}
+
+	/**
+	 * Gets the character image stored in the recording.
+	 *
+	 * @return the character image file name
+	 */
+	public String getCharacterImage() {
+		return characterImage;
+	}
+
+	// ========== DECODING ==========
+
+	private int readByte() {
+		if (pos >= data.length) {
+			throw new IllegalArgumentException("Recording is truncated");
+		}
+		return data[pos++] & 0xFF;
+	}
+
+	/**
+	 * Reads an enum constant stored as its ordinal in one byte.
+	 *
+	 * @throws IllegalArgumentException if the ordinal is out of range
+	 */
+	private <E extends Enum<E>> E readEnum(E[] values, String what) {
+		int ordinal = readByte();
+		if (ordinal >= values.length) {
+			throw new IllegalArgumentException("Invalid " + what + " " + ordinal + " in recording");
+		}
+		return values[ordinal];
+	}
+
+	/**
+	 * Reads a row or column stored as a varint.
+	 *
+	 * @throws IllegalArgumentException if it is outside the map
+	 */
+	private int readIndex(int size, String what) {
+		long index = readVarint();
+		if (index < 0 || index >= size) {
+			throw new IllegalArgumentException("Invalid " + what + " " + index + " in recording");
+		}
+		return (int) index;
+	}
+
+	private long readVarint() {
+		long value = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	private String readString() {
+		long length = readVarint();
+		if (length < 0 || length > data.length - pos) {
+			throw new IllegalArgumentException("Recording is truncated");
+		}
+		String text = new String(data, pos, (int) length, StandardCharsets.UTF_8);
+		pos += (int) length;
+		return text;
+	}
+}
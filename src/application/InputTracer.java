@@ -0,0 +1,192 @@
+package application;
+
+/**
+ * Traces player input from the event handler to the frame that shows its result.
+ *
+ * <p>Each handled key press or mouse event starts a trace with an id, its {@link Kind} and a
+ * {@link System#nanoTime()} stamp. The game then marks the end of each {@link Phase} as it
+ * goes: {@link GameModel#moveMiner}, {@link GameModel#mineCell(int, int)} and the path methods
+ * mark the model work, {@link MapView#revealAroundMiner()} and {@link MapView#updateView()} the
+ * view passes, and the scene's post-layout pulse listener ends all open traces, as the frame
+ * is then handed to the renderer. A mark applies to every open trace that has not reached that
+ * phase yet, since one pass shows the result of all inputs before it. A phase that was never
+ * marked takes no time.</p>
+ *
+ * <p>Finished traces are recorded in a latency histogram per input kind and per phase, in
+ * {@link PerfCounters#INPUT_LATENCY}, and as a {@link GameEvents.InputLatency} flight recorder
+ * event carrying the trace id. Open traces live in preallocated arrays, so tracing allocates
+ * nothing. A game without a scene never ends its traces; once {@value #MAX_OPEN} are open, new
+ * ones are ignored.</p>
+ */
+public class InputTracer {
+
+	/**
+	 * Type of a traced input, each with its end-to-end latency distribution.
+	 */
+	public enum Kind {
+		/** Arrow key, moving the miner. */
+		ARROW_KEY,
+		/** Any other key of the game screen. */
+		OTHER_KEY,
+		/** Click on a cell, mining it or opening the shop. */
+		MINE_CLICK,
+		/** Start, extension or release of a drag path. */
+		DRAG_PATH,
+		/** Mouse release on the game screen without a cell action. */
+		MOUSE_RELEASE;
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		/**
+		 * Gets the latency distribution of this kind of input, over all games.
+		 *
+		 * @return the histogram of input-to-frame times
+		 */
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+	}
+
+	/**
+	 * Stage of handling an input, each with its duration distribution.
+	 */
+	public enum Phase {
+		/** From the event to the end of the model update. */
+		MODEL,
+		/** From the model update to the end of the fog-of-war reveal pass. */
+		REVEAL,
+		/** From the reveal pass to the end of the cell update pass. */
+		UPDATE,
+		/** From the view passes to the end of the next pulse's layout. */
+		FRAME;
+
+		private final LatencyHistogram duration = new LatencyHistogram();
+
+		/**
+		 * Gets the duration distribution of this phase, over all inputs and games.
+		 *
+		 * @return the histogram of phase durations
+		 */
+		public LatencyHistogram getDuration() {
+			return duration;
+		}
+	}
+
+	private static final int MAX_OPEN = 64;
+	private static final Kind[] KINDS = Kind.values();
+	private static final Phase[] PHASES = Phase.values();
+
+	// Open traces: id, kind, start stamp and the end stamp of each phase (0 while unmarked)
+	private final long[] ids = new long[MAX_OPEN];
+	private final byte[] kinds = new byte[MAX_OPEN];
+	private final long[] starts = new long[MAX_OPEN];
+	private final long[] phaseEnds = new long[MAX_OPEN * PHASES.length];
+	private int open = 0;
+	private long nextId = 1;
+
+	/**
+	 * Starts a trace for an input being handled now.
+	 *
+	 * @param kind the type of input
+	 * @return the trace id, or 0 if too many traces are open
+	 */
+	public long begin(Kind kind) {
+		if (open == MAX_OPEN) {
+			return 0;
+		}
+		int i = open++;
+		ids[i] = nextId++;
+		kinds[i] = (byte) kind.ordinal();
+		starts[i] = System.nanoTime();
+		for (int p = 0; p < PHASES.length; p++) {
+			phaseEnds[i * PHASES.length + p] = 0;
+		}
+		return ids[i];
+	}
+
+	/**
+	 * Checks if a trace is open that has not been through a view pass yet.
+	 *
+	 * @return true if such a trace is waiting
+	 */
+	public boolean isWaitingForView() {
+		for (int i = 0; i < open; i++) {
+			if (phaseEnds[i * PHASES.length + Phase.UPDATE.ordinal()] == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Marks the end of a phase for every open trace that has not reached it yet.
+	 *
+	 * @param phase the phase that just ended
+	 */
+	public void mark(Phase phase) {
+		if (open == 0) {
+			return;
+		}
+		long now = System.nanoTime();
+		for (int i = 0; i < open; i++) {
+			int base = i * PHASES.length;
+			if (phaseEnds[base + phase.ordinal()] == 0 && laterUnmarked(base, phase)) {
+				phaseEnds[base + phase.ordinal()] = now;
+			}
+		}
+	}
+
+	/**
+	 * Ends all open traces. Called after the layout of every pulse.
+	 */
+	public void frameLaidOut() {
+		if (open == 0) {
+			return;
+		}
+		long now = System.nanoTime();
+		for (int i = 0; i < open; i++) {
+			int base = i * PHASES.length;
+			phaseEnds[base + Phase.FRAME.ordinal()] = now;
+			long total = now - starts[i];
+			KINDS[kinds[i]].latency.record(total);
+			PerfCounters.INPUT_LATENCY.record(total);
+
+			// Unmarked phases end where the previous one did
+			long previous = starts[i];
+			for (Phase phase : PHASES) {
+				long end = phaseEnds[base + phase.ordinal()];
+				if (end == 0) {
+					end = previous;
+				}
+				phase.duration.record(end - previous);
+				phaseEnds[base + phase.ordinal()] = end;
+				previous = end;
+			}
+
+			GameEvents.InputLatency event = new GameEvents.InputLatency();
+			if (event.shouldCommit()) {
+				event.traceId = ids[i];
+				event.kind = KINDS[kinds[i]].name();
+				event.total = total;
+				event.model = phaseEnds[base + Phase.MODEL.ordinal()] - starts[i];
+				event.reveal = phaseEnds[base + Phase.REVEAL.ordinal()] - phaseEnds[base + Phase.MODEL.ordinal()];
+				event.update = phaseEnds[base + Phase.UPDATE.ordinal()] - phaseEnds[base + Phase.REVEAL.ordinal()];
+				event.frame = now - phaseEnds[base + Phase.UPDATE.ordinal()];
+				event.commit();
+			}
+		}
+		open = 0;
+	}
+
+	/**
+	 * Checks that no phase after the given one is marked, so marks stay in phase order.
+	 */
+	private boolean laterUnmarked(int base, Phase phase) {
+		for (int p = phase.ordinal() + 1; p < PHASES.length; p++) {
+			if (phaseEnds[base + p] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
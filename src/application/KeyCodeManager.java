@@ -1,29 +1,46 @@
 package application;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Manages the generation, storage, and tracking of key codes for game progression.
  * Each key has a unique single-character code that can be collected during gameplay.
  */
 public class KeyCodeManager {
-    private String[] keyCodes = new String[3];
-    private boolean[] keyCollected = new boolean[3];
+    static final int KEY_COUNT = 3;
+
+    private String[] keyCodes = new String[KEY_COUNT];
+    private boolean[] keyCollected = new boolean[KEY_COUNT];
     private static final String CHARSET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    private static final Random random = new Random();
+    private final SplittableRandom random;
 
     /**
      * Constructs a new KeyCodeManager and generates random key codes.
+     * @param random the session's key code stream, so the same seed gives the same codes
      */
-    public KeyCodeManager() {
+    public KeyCodeManager(SplittableRandom random) {
+        this.random = random;
         generateAllKeyCodes();
     }
 
+    /**
+     * Constructs a KeyCodeManager with known codes and collection state, as when loading a save.
+     * @param codes the code of each key
+     * @param collected whether each key has been collected
+     */
+    public KeyCodeManager(String[] codes, boolean[] collected) {
+        this.random = null;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keyCodes[i] = codes[i];
+            keyCollected[i] = collected[i];
+        }
+    }
+
     /**
      * Generates unique random codes for all three keys.
      */
     private void generateAllKeyCodes() {
-        for (int i = 0; i < 3; i++) {
+        for (int i = 0; i < KEY_COUNT; i++) {
             keyCodes[i] = generateRandomCode();
         }
     }
@@ -46,6 +63,17 @@ public class KeyCodeManager {
         }
     }
 
+    /**
+     * Sets whether a key has been collected, as when rewinding.
+     * @param keyIndex the index of the key (0-2)
+     * @param collected whether the key is collected
+     */
+    void setKeyCollected(int keyIndex, boolean collected) {
+        if (keyIndex >= 0 && keyIndex < 3) {
+            keyCollected[keyIndex] = collected;
+        }
+    }
+
     /**
      * Gets the code for a specific key.
      * @param keyIndex the index of the key (0-2)
@@ -0,0 +1,172 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations in nanoseconds, with a fixed relative precision.
+ *
+ * <p>Buckets follow the HDR histogram layout: each power of two is split into
+ * {@value #SUB_BUCKETS} equal buckets, so a recorded value is known to within about 6% from
+ * 16 ns up to {@value #MAX_EXPONENT}-bit values (about 18 minutes). Larger values are counted in
+ * the top bucket. The counts live in one preallocated array that is updated atomically, so
+ * {@link #record(long)} allocates nothing, takes no lock and can be called from any thread.</p>
+ *
+ * <p>Readers see the buckets one by one while recording goes on, so a percentile may lag the
+ * latest values by a few samples. The count is taken from the buckets themselves, so the
+ * distribution is always consistent with it.</p>
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	// ========== RECORDING ==========
+
+	/**
+	 * Records one duration. Negative durations count as zero.
+	 *
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Records the time elapsed since a start timestamp taken with {@link System#nanoTime()}.
+	 *
+	 * @param startNanos the start timestamp
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Clears all recorded durations. Values recorded while the reset runs may be partly kept,
+	 * so it is meant for use between measurement runs.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		sum.reset();
+		max.reset();
+	}
+
+	// ========== READING ==========
+
+	/**
+	 * Gets the number of recorded durations.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the total of all recorded durations.
+	 *
+	 * @return the sum in nanoseconds
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Gets the longest recorded duration.
+	 *
+	 * @return the maximum in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Gets the duration below which the given share of the recorded durations fall, as the
+	 * upper bound of the bucket holding that rank.
+	 *
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the duration in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(upperBound(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Gets the number of recorded durations up to a bound.
+	 * Exact when the bound is a power of two of at least {@value #SUB_BUCKETS} nanoseconds.
+	 *
+	 * @param nanos the inclusive upper bound in nanoseconds
+	 * @return the number of durations in buckets that end at or below the bound
+	 */
+	public long getCountAtOrBelow(long nanos) {
+		long count = 0;
+		for (int i = 0; i < BUCKETS && upperBound(i) - 1 <= nanos; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	// ========== BUCKETS ==========
+
+	/**
+	 * Gets the bucket of a value: exact below {@value #SUB_BUCKETS}, then
+	 * {@value #SUB_BUCKETS} buckets per power of two.
+	 */
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent >= MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int shift = exponent - SUB_BITS;
+		int top = (int) (value >>> shift);
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (top - SUB_BUCKETS);
+	}
+
+	/**
+	 * Gets the exclusive upper bound of the values in a bucket.
+	 */
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket + 1;
+		}
+		int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		long top = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return (top + 1) << shift;
+	}
+}
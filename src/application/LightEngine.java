@@ -0,0 +1,366 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * Spreads light from the miner's lamp and placed torches over the map.
+ *
+ * <p>Every cell holds a light level, 0 when dark. Light spreads outwards from each
+ * source by breadth-first search, losing {@value #OPEN_COST} level per open tile it enters and
+ * {@value #SOLID_COST} per solid tile, so it reaches further along tunnels than into rock. A
+ * cell keeps the brightest level any source gives it.</p>
+ *
+ * <p>Changes are applied incrementally with an add queue and a remove queue. Adding or
+ * brightening a source floods outwards from it. Removing or dimming a source first walks the
+ * area it lit, clearing every level that could have come from it. Brighter cells found at the
+ * edge of that area are queued again, so light from other sources flows back in. Mining a
+ * tile relights only the cells around it in the same way. Each cell whose level changed is
+ * recorded once, so the view can update just those cells.</p>
+ */
+public class LightEngine {
+
+	/** Light level of the miner's lamp. */
+	public static final int MINER_LIGHT = 3;
+
+	/** Light level of a placed torch. */
+	public static final int TORCH_LIGHT = 7;
+
+	/** Light lost when entering an open tile. */
+	private static final int OPEN_COST = 1;
+
+	/** Light lost when entering a solid tile. */
+	private static final int SOLID_COST = 2;
+
+	private final Map map;
+	private final int rows;
+	private final int cols;
+
+	// Per-cell state
+	private final byte[] level;
+	private final byte[] emission;
+	private final boolean[] torch;
+	private final boolean[] solid;
+	private int minerCell;
+
+	// Work queues of packed cell indices; the remove queue also stores the cleared level
+	private int[] addQueue;
+	private int[] removeQueue;
+	private byte[] removeLevel;
+
+	// Cells whose level changed since the last drain
+	private int[] changed;
+	private int changedCount = 0;
+	private final boolean[] changedFlag;
+
+	/**
+	 * Constructs a light engine for the given map with the miner's lamp at its position.
+	 *
+	 * @param map the map to light
+	 * @param minerRow the row of the miner
+	 * @param minerCol the column of the miner
+	 */
+	public LightEngine(Map map, int minerRow, int minerCol) {
+		this.map = map;
+		this.rows = map.getRows();
+		this.cols = map.getCols();
+
+		int size = rows * cols;
+		level = new byte[size];
+		emission = new byte[size];
+		torch = new boolean[size];
+		solid = new boolean[size];
+		addQueue = new int[64];
+		removeQueue = new int[64];
+		removeLevel = new byte[64];
+		changed = new int[64];
+		changedFlag = new boolean[size];
+
+		Cell[][] cells = map.getCells();
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				solid[r * cols + c] = !cells[r][c].isWalkable();
+			}
+		}
+
+		minerCell = minerRow * cols + minerCol;
+		setEmission(minerCell, MINER_LIGHT);
+	}
+
+	// ========== SOURCES ==========
+
+	/**
+	 * Moves the miner's lamp to a new cell.
+	 *
+	 * @param row the new row of the miner
+	 * @param col the new column of the miner
+	 */
+	public void setMinerPosition(int row, int col) {
+		int cell = row * cols + col;
+		if (cell == minerCell) {
+			return;
+		}
+		int previous = minerCell;
+		minerCell = cell;
+		setEmission(previous, sourceLevel(previous));
+		setEmission(cell, sourceLevel(cell));
+	}
+
+	/**
+	 * Places a torch on a cell, or removes the torch already there.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 * @return true if a torch was placed, false if one was removed
+	 */
+	public boolean toggleTorch(int row, int col) {
+		int cell = row * cols + col;
+		torch[cell] = !torch[cell];
+		setEmission(cell, sourceLevel(cell));
+		return torch[cell];
+	}
+
+	/**
+	 * Checks if a torch stands on a cell.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 * @return true if the cell holds a torch, false otherwise
+	 */
+	public boolean hasTorch(int row, int col) {
+		return torch[row * cols + col];
+	}
+
+	/**
+	 * Gets the cells holding a torch.
+	 *
+	 * @return the packed indices of the torch cells
+	 */
+	public int[] getTorches() {
+		int count = 0;
+		for (boolean t : torch) {
+			if (t) count++;
+		}
+		int[] cells = new int[count];
+		int n = 0;
+		for (int i = 0; i < torch.length; i++) {
+			if (torch[i]) cells[n++] = i;
+		}
+		return cells;
+	}
+
+	private int sourceLevel(int cell) {
+		int value = torch[cell] ? TORCH_LIGHT : 0;
+		if (cell == minerCell) {
+			value = Math.max(value, MINER_LIGHT);
+		}
+		return value;
+	}
+
+	/**
+	 * Changes the light emitted by a cell and relights the affected area.
+	 */
+	private void setEmission(int cell, int value) {
+		int old = emission[cell];
+		emission[cell] = (byte) value;
+
+		if (value < old) {
+			removeLight(cell);
+		}
+		if (value > level[cell]) {
+			setLevel(cell, value);
+			propagate(push(cell, 0));
+		}
+	}
+
+	// ========== MAP CHANGES ==========
+
+	/**
+	 * Relights the area around a cell after it may have changed between open and solid.
+	 *
+	 * @param row the row of the changed cell
+	 * @param col the column of the changed cell
+	 */
+	public void updateCell(int row, int col) {
+		int cell = row * cols + col;
+		boolean nowSolid = !map.getCells()[row][col].isWalkable();
+		if (solid[cell] == nowSolid) {
+			return;
+		}
+		solid[cell] = nowSolid;
+
+		// Clear what the cell passed on under the old cost, then let the neighbours refill it
+		removeLight(cell);
+		int tail = 0;
+		if (row > 0) tail = pushIfLit(cell - cols, tail);
+		if (row < rows - 1) tail = pushIfLit(cell + cols, tail);
+		if (col > 0) tail = pushIfLit(cell - 1, tail);
+		if (col < cols - 1) tail = pushIfLit(cell + 1, tail);
+		propagate(tail);
+	}
+
+	// ========== PROPAGATION ==========
+
+	/**
+	 * Clears the light that may have come from a cell and re-floods from the brighter edge.
+	 */
+	private void removeLight(int start) {
+		int head = 0;
+		int tail = 0;
+		int addTail = 0;
+
+		tail = pushRemove(start, level[start], tail);
+		setLevel(start, 0);
+		if (emission[start] > 0) {
+			setLevel(start, emission[start]);
+			addTail = push(start, addTail);
+		}
+
+		while (head < tail) {
+			int cell = removeQueue[head];
+			int old = removeLevel[head];
+			head++;
+			int r = cell / cols;
+			int c = cell % cols;
+			for (int d = 0; d < 4; d++) {
+				int n = neighbour(r, c, d);
+				if (n < 0 || level[n] == 0) {
+					continue;
+				}
+				if (level[n] < old) {
+					tail = pushRemove(n, level[n], tail);
+					setLevel(n, 0);
+					if (emission[n] > 0) {
+						setLevel(n, emission[n]);
+						addTail = push(n, addTail);
+					}
+				} else {
+					addTail = push(n, addTail);
+				}
+			}
+		}
+		propagate(addTail);
+	}
+
+	/**
+	 * Floods light outwards from the cells waiting in the add queue.
+	 *
+	 * @param tail the number of cells in the add queue
+	 */
+	private void propagate(int tail) {
+		int head = 0;
+		while (head < tail) {
+			int cell = addQueue[head++];
+			int value = level[cell];
+			int r = cell / cols;
+			int c = cell % cols;
+			for (int d = 0; d < 4; d++) {
+				int n = neighbour(r, c, d);
+				if (n < 0) {
+					continue;
+				}
+				int lit = value - (solid[n] ? SOLID_COST : OPEN_COST);
+				if (lit > level[n]) {
+					setLevel(n, lit);
+					tail = push(n, tail);
+				}
+			}
+		}
+	}
+
+	private int neighbour(int r, int c, int direction) {
+		return switch (direction) {
+			case 0 -> r > 0 ? (r - 1) * cols + c : -1;
+			case 1 -> r < rows - 1 ? (r + 1) * cols + c : -1;
+			case 2 -> c > 0 ? r * cols + c - 1 : -1;
+			default -> c < cols - 1 ? r * cols + c + 1 : -1;
+		};
+	}
+
+	private int push(int cell, int tail) {
+		if (tail == addQueue.length) {
+			addQueue = Arrays.copyOf(addQueue, tail * 2);
+		}
+		addQueue[tail] = cell;
+		return tail + 1;
+	}
+
+	private int pushIfLit(int cell, int tail) {
+		return level[cell] > 0 ? push(cell, tail) : tail;
+	}
+
+	private int pushRemove(int cell, int value, int tail) {
+		if (tail == removeQueue.length) {
+			removeQueue = Arrays.copyOf(removeQueue, tail * 2);
+			removeLevel = Arrays.copyOf(removeLevel, tail * 2);
+		}
+		removeQueue[tail] = cell;
+		removeLevel[tail] = (byte) value;
+		return tail + 1;
+	}
+
+	private void setLevel(int cell, int value) {
+		if (level[cell] == value) {
+			return;
+		}
+		level[cell] = (byte) value;
+		if (!changedFlag[cell]) {
+			changedFlag[cell] = true;
+			if (changedCount == changed.length) {
+				changed = Arrays.copyOf(changed, changedCount * 2);
+			}
+			changed[changedCount++] = cell;
+		}
+	}
+
+	// ========== QUERIES ==========
+
+	/**
+	 * Gets the light level of a cell.
+	 *
+	 * @param row the row of the cell
+	 * @param col the column of the cell
+	 * @return the light level, 0 when dark
+	 */
+	public int getLevel(int row, int col) {
+		return level[row * cols + col];
+	}
+
+	/**
+	 * Gets the raw light levels, indexed by packed cell index. The array must not be modified.
+	 *
+	 * @return the light level array
+	 */
+	public byte[] getLevels() {
+		return level;
+	}
+
+	/**
+	 * Gets the number of cells whose light level changed since the last call to
+	 * {@link #clearChanged()}.
+	 *
+	 * @return the number of changed cells
+	 */
+	public int getChangedCount() {
+		return changedCount;
+	}
+
+	/**
+	 * Gets a changed cell by position in the change list.
+	 *
+	 * @param i the position in the change list
+	 * @return the packed index of the changed cell
+	 */
+	public int getChanged(int i) {
+		return changed[i];
+	}
+
+	/**
+	 * Clears the list of changed cells after the view has applied them.
+	 */
+	public void clearChanged() {
+		for (int i = 0; i < changedCount; i++) {
+			changedFlag[changed[i]] = false;
+		}
+		changedCount = 0;
+	}
+}
@@ -1,6 +1,8 @@
 package application;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -13,6 +15,10 @@ import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import javafx.stage.WindowEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * Main application class for Miner's Quest game.
@@ -24,19 +30,104 @@ public class Main extends Application {
 
 	MapView view;
 
+	GameLoop gameLoop;
+
+	// Engine statistics overlay of the current game screen, toggled with F3
+	private PerfOverlay perfOverlay;
+
+	// Loopback metrics endpoint, or null when not enabled
+	private MetricsServer metricsServer;
+
 	private String selectedCharacter = "miner-version1.png";
 	private Difficulty selectedDifficulty = Difficulty.EASY;
 
+	// Where to save the input recording of the next game, or null when not recording
+	private Path recordPath;
+
+	// Crash journal directory, or null when not journaling
+	private Path journalDir;
+
+	// Closes the current game's journal with the window, replaced when another game is journaled
+	private EventHandler<WindowEvent> journalCloser;
+
+	// Quick save slot, written with F5 and loaded with F9
+	private static final Path QUICK_SAVE = Path.of(System.getProperty("user.home"), ".mine-quest", "quicksave.bin");
+	private final SaveManager saveManager = new SaveManager();
+
 	/**
 	 * Starts the JavaFX application.
+	 *
+	 * <p>Supported options: {@code --record=<file>} records the player's input of the game to
+	 * a file, and {@code --replay=<file>} plays a recording back on screen, at the speed given by
+	 * {@code --replay-speed=<factor>} (real time by default). {@code --journal=<dir>} journals
+	 * the game to a crash journal in the directory, and resumes the journaled game on the next
+	 * start if the previous one did not end. {@code --metrics-port=<port>} serves the game's
+	 * metrics in the Prometheus text format at {@code http://127.0.0.1:<port>/metrics}.</p>
 	 */
 	@Override
 	public void start(Stage stage) {
 		stage.setTitle("Miner's Quest");
 
+		java.util.Map<String, String> options = getParameters().getNamed();
+		if (options.containsKey("record")) {
+			recordPath = Path.of(options.get("record"));
+		}
+		if (options.containsKey("metrics-port")) {
+			startMetrics(options.get("metrics-port"));
+		}
+		if (options.containsKey("journal")) {
+			journalDir = Path.of(options.get("journal"));
+			try {
+				GameModel recovered = WorldJournal.recover(journalDir);
+				if (recovered != null) {
+					startJournal(stage, recovered);
+					showGameScreen(stage, recovered);
+					stage.show();
+					return;
+				}
+			} catch (IOException | RuntimeException e) {
+				GameLog.warn(GameLog.Category.IO, "Cannot recover journal in %s: %s", journalDir, e.getMessage());
+			}
+		}
+		if (options.containsKey("replay")) {
+			try {
+				InputReplayer replayer = InputReplayer.load(Path.of(options.get("replay")));
+				showGameScreen(stage, replayer.getModel());
+				gameLoop.setTickHook(replayer::applyDue);
+				gameLoop.setSpeed(Double.parseDouble(options.getOrDefault("replay-speed", "1")));
+				stage.show();
+				return;
+			} catch (IOException | IllegalArgumentException e) {
+				GameLog.warn(GameLog.Category.IO, "Cannot replay %s: %s", options.get("replay"), e.getMessage());
+			}
+		}
+
 		showMenuScreen(stage);
 	}
 
+	/**
+	 * Starts the loopback metrics endpoint on the given port.
+	 */
+	private void startMetrics(String port) {
+		MetricsRegistry registry = new MetricsRegistry();
+		PerfCounters.register(registry);
+		try {
+			metricsServer = MetricsServer.start(Integer.parseInt(port), registry);
+		} catch (IOException | NumberFormatException e) {
+			GameLog.warn(GameLog.Category.IO, "Cannot serve metrics on port %s: %s", port, e.getMessage());
+		}
+	}
+
+	/**
+	 * Stops the metrics endpoint, if any, when the application exits.
+	 */
+	@Override
+	public void stop() {
+		if (metricsServer != null) {
+			metricsServer.stop();
+		}
+	}
+
 	/**
 	 * Displays the main menu screen.
 	 */
@@ -331,37 +422,84 @@ public class Main extends Application {
 	}
 
 	/**
-	 * Displays the main game screen.
+	 * Starts a new game with the selected character and difficulty and displays it.
+	 * The game's input is recorded when a recording file was given on the command line.
 	 */
 	private void showGameScreen(Stage stage) {
-		// --- Game model ---
 		GameModel model = new GameModel(selectedCharacter, selectedDifficulty);
+		if (recordPath != null) {
+			model.startRecording(selectedCharacter, selectedDifficulty);
+			stage.setOnHidden(e -> saveRecording(model));
+		}
+		if (journalDir != null) {
+			startJournal(stage, model);
+		}
+		showGameScreen(stage, model);
+	}
+
+	/**
+	 * Journals the game to the crash journal directory, closing the journal with the window.
+	 */
+	private void startJournal(Stage stage, GameModel model) {
+		if (journalCloser != null) {
+			stage.removeEventHandler(WindowEvent.WINDOW_HIDDEN, journalCloser);
+			journalCloser = null;
+		}
+		try {
+			WorldJournal journal = model.startJournal(journalDir);
+			journalCloser = e -> journal.close();
+			stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, journalCloser);
+		} catch (IOException e) {
+			GameLog.warn(GameLog.Category.IO, "Cannot journal game to %s: %s", journalDir, e.getMessage());
+		}
+	}
+
+	/**
+	 * Displays the main game screen for the given game model.
+	 * Package-private so the frame-time harness can build the real game scene.
+	 */
+	void showGameScreen(Stage stage, GameModel model) {
 		model.setGameStage(stage);
 		KeyCodeManager keyCodeMgr = model.getKeyCodeManager();
 
+		gameLoop = new GameLoop(model);
+
 		model.setCallback(() -> updateVisuals());
-		model.setWinCallback(() -> showWinDialog(stage));
-		model.setLoseCallback(() -> showLoseDialog(stage));
+		model.setWinCallback(() -> {
+			gameLoop.stop();
+			saveRecording(model);
+			Platform.runLater(() -> showWinDialog(stage));
+		});
+		model.setLoseCallback(() -> {
+			gameLoop.stop();
+			saveRecording(model);
+			showLoseDialog(stage);
+		});
 		model.setShopCallback(() -> showShopDialog(stage, model));
 
 		model.setKeyCollectedCallback(() -> {
 			int keysCollected = model.getKeysCollected();
 			int keyIndex = keysCollected - 1; // Last key collected (0-indexed)
 			String keyCode = keyCodeMgr.getKeyCode(keyIndex);
-			showKeyCodePopup(stage, keyCode, keysCollected); // Pass key number
+			Platform.runLater(() -> showKeyCodePopup(stage, keyCode, keysCollected)); // Pass key number
 		});
 
 		model.setChestOpenedCallback(() -> {
-			showChestCodeDialog(stage, model);
+			Platform.runLater(() -> showChestCodeDialog(stage, model));
 		});
 
-		// --- GridPane for map ---
+		// --- GridPane for map, with a sprite layer on top ---
 		GridPane gridPane = new GridPane();
-		view = new MapView(gridPane, model);
+		Pane spriteLayer = new Pane();
+		spriteLayer.setMouseTransparent(true);
+		StackPane mapLayers = new StackPane(gridPane, spriteLayer);
+		StackPane.setAlignment(gridPane, Pos.TOP_LEFT);
+		view = new MapView(gridPane, spriteLayer, model);
+		gameLoop.setFrameCallback(() -> view.renderSwarm());
 
 		// --- ScrollPane to make map scrollable ---
 		ScrollPane scrollPane = new ScrollPane();
-		scrollPane.setContent(gridPane);
+		scrollPane.setContent(mapLayers);
 		scrollPane.setFitToWidth(true);
 		scrollPane.setFitToHeight(false);
 		scrollPane.setPannable(true);
@@ -427,8 +565,23 @@ public class Main extends Application {
 			oxygenText.setText(model.getMiner().getOxygen() < 1 ? "0" : String.valueOf(model.getMiner().getOxygen()));
 		});
 
+		// --- Bomb Display ---
+		HBox bombDisplay = new HBox(10);
+		bombDisplay.setAlignment(Pos.CENTER_LEFT);
+		bombDisplay.setStyle("-fx-background-color: transparent; -fx-padding: 10;");
+		bombDisplay.setMouseTransparent(true);
+
+		Label bombText = new Label("Bombs: 0");
+		bombText.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+		bombText.setTextFill(Color.BLACK);
+		bombDisplay.getChildren().add(bombText);
+
+		model.setBombCallback(() -> {
+			bombText.setText("Bombs: " + model.getMiner().getBombs());
+		});
+
 		statusBox.setMouseTransparent(true);
-		statusBox.getChildren().addAll(goldDisplay, oxygenDisplay);
+		statusBox.getChildren().addAll(goldDisplay, oxygenDisplay, bombDisplay);
 
 		// --- Layout ---
 		StackPane overlayPane = new StackPane();
@@ -437,6 +590,11 @@ public class Main extends Application {
 		StackPane.setAlignment(goldDisplay, Pos.TOP_LEFT);
 		StackPane.setMargin(goldDisplay, new Insets(0, 0, 600, 0));
 
+		if (perfOverlay != null) {
+			perfOverlay.stop();
+		}
+		perfOverlay = new PerfOverlay(overlayPane);
+
 		BorderPane root = new BorderPane();
 		root.setCenter(overlayPane);
 
@@ -444,7 +602,9 @@ public class Main extends Application {
 		gameScene.getStylesheets().add(getClass().getResource("application.css").toExternalForm());
 
 		// --- Key controls ---
+		InputTracer tracer = model.getInputTracer();
 		gameScene.setOnKeyPressed(event -> {
+			tracer.begin(event.getCode().isArrowKey() ? InputTracer.Kind.ARROW_KEY : InputTracer.Kind.OTHER_KEY);
 			switch (event.getCode()) {
 				case UP -> {
 					model.moveMiner(GameModel.Direction.UP);
@@ -456,18 +616,90 @@ public class Main extends Application {
 				}
 				case LEFT -> model.moveMiner(GameModel.Direction.LEFT);
 				case RIGHT -> model.moveMiner(GameModel.Direction.RIGHT);
+				case ESCAPE -> model.cancelWalk();
+				case T -> model.toggleTorch();
+				case B -> model.detonateBomb();
+				case BACK_SPACE -> model.rewind(GameModel.REWIND_TICKS);
+				case F3 -> perfOverlay.toggle();
+				case F5 -> quickSave(model);
+				case F9 -> {
+					quickLoad(stage, model);
+					return;
+				}
 			}
+			tracer.mark(InputTracer.Phase.MODEL);
 			view.revealAroundMiner();
 			view.updateView();
 		});
 
 		gameScene.setOnMouseReleased(event -> {
+			if (!tracer.isWaitingForView()) {
+				tracer.begin(InputTracer.Kind.MOUSE_RELEASE);
+			}
 			view.revealAroundMiner();
 			view.updateView();
 		});
 
+		// The frame that shows an input is complete once the next pulse has laid it out
+		gameScene.addPostLayoutPulseListener(tracer::frameLaidOut);
+
 		stage.setScene(gameScene);
 		gridPane.requestFocus();
+		gameLoop.start();
+	}
+
+	/**
+	 * Saves the game to the quick save slot. The file is written in the background.
+	 */
+	private void quickSave(GameModel model) {
+		saveManager.saveAsync(model, QUICK_SAVE).exceptionally(e -> {
+			GameLog.warn(GameLog.Category.IO, "Cannot save game to %s: %s", QUICK_SAVE, e.getMessage());
+			return null;
+		});
+	}
+
+	/**
+	 * Replaces the running game with the one in the quick save slot, if there is one.
+	 * The running game's journal is discarded and the loaded game is journaled instead. A
+	 * recording cannot continue into a loaded game, so it is ended and saved at the load.
+	 */
+	private void quickLoad(Stage stage, GameModel current) {
+		GameModel loaded;
+		try {
+			loaded = new GameModel(SaveManager.load(QUICK_SAVE));
+		} catch (IOException e) {
+			GameLog.warn(GameLog.Category.IO, "Cannot load game from %s: %s", QUICK_SAVE, e.getMessage());
+			return;
+		}
+		gameLoop.stop();
+		if (current.getRecorder() != null) {
+			saveRecording(current);
+			stage.setOnHidden(null);
+			GameLog.info(GameLog.Category.IO, "Recording ended at quick load, the loaded game is not recorded");
+		}
+		if (current.getJournal() != null) {
+			current.getJournal().discard();
+		}
+		if (journalDir != null) {
+			startJournal(stage, loaded);
+		}
+		showGameScreen(stage, loaded);
+	}
+
+	/**
+	 * Ends the game's input recording, if any, and writes it to the recording file.
+	 */
+	private void saveRecording(GameModel model) {
+		InputRecorder recorder = model.getRecorder();
+		if (recorder == null || recordPath == null) {
+			return;
+		}
+		recorder.finish(model.getTickCount());
+		try {
+			recorder.save(recordPath);
+		} catch (IOException e) {
+			GameLog.warn(GameLog.Category.IO, "Cannot save recording to %s: %s", recordPath, e.getMessage());
+		}
 	}
 
 	/**
@@ -696,7 +928,7 @@ public class Main extends Application {
 		});
 
 		buyButton.setOnAction(e -> {
-			if (Shop.buyPickaxeUpgrade(miner, model)) {
+			if (model.buyPickaxeUpgrade()) {
 				updateDialogState.run();
 			} else {
 				Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -764,7 +996,7 @@ public class Main extends Application {
 		});
 
 		buyOxygenButton.setOnAction(e -> {
-			if (Shop.buyOxygenUpgrade(miner, model)) {
+			if (model.buyOxygenUpgrade()) {
 				updateOxygenDialogState.run();
 			} else {
 				Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -777,6 +1009,43 @@ public class Main extends Application {
 
 		oxygenSection.getChildren().addAll(oxygenTitle, oxygenLevelText, oxygenTimeText, oxygenCostText, buyOxygenButton);
 
+		VBox bombSection = new VBox(10);
+		bombSection.setStyle("-fx-border-color: black; -fx-border-width: 2px; -fx-padding: 15;");
+
+		Text bombTitle = new Text("BOMBS");
+		bombTitle.setFont(Font.font("Arial", FontWeight.BOLD, 18));
+
+		final Text bombCountText = new Text("Carried: " + miner.getBombs());
+		bombCountText.setFont(Font.font("Arial", 14));
+
+		Text bombCostText = new Text("Blast: 7x7 (press B) | Cost: " + Shop.getBombCost());
+		bombCostText.setFont(Font.font("Arial", 14));
+
+		final Button buyBombButton = new Button("BUY");
+		buyBombButton.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+		buyBombButton.setMinWidth(100);
+		buyBombButton.setMinHeight(35);
+		buyBombButton.setStyle("-fx-background-color: white; -fx-border-color: black; -fx-border-width: 2px;");
+
+		buyBombButton.setOnMouseEntered(e -> buyBombButton
+				.setStyle("-fx-background-color: #E0E0E0; -fx-border-color: black; -fx-border-width: 2px;"));
+		buyBombButton.setOnMouseExited(e -> buyBombButton
+				.setStyle("-fx-background-color: white; -fx-border-color: black; -fx-border-width: 2px;"));
+
+		buyBombButton.setOnAction(e -> {
+			if (model.buyBomb()) {
+				bombCountText.setText("Carried: " + miner.getBombs());
+			} else {
+				Alert alert = new Alert(Alert.AlertType.WARNING);
+				alert.setTitle("Insufficient Gold");
+				alert.setHeaderText("Cannot Buy Bomb");
+				alert.setContentText("You don't have enough gold for a bomb!");
+				alert.showAndWait();
+			}
+		});
+
+		bombSection.getChildren().addAll(bombTitle, bombCountText, bombCostText, buyBombButton);
+
 		Button closeButton = new Button("✕");
 		closeButton.setFont(Font.font("Arial", FontWeight.BOLD, 16));
 		closeButton.setMinWidth(40);
@@ -794,7 +1063,7 @@ public class Main extends Application {
 		topBar.setAlignment(Pos.TOP_RIGHT);
 		topBar.getChildren().add(closeButton);
 
-		dialogLayout.getChildren().addAll(topBar, title, pickaxeSection, oxygenSection);
+		dialogLayout.getChildren().addAll(topBar, title, pickaxeSection, oxygenSection, bombSection);
 
 		dialog.getDialogPane().setContent(dialogLayout);
 		dialog.showAndWait();
@@ -916,8 +1185,7 @@ public class Main extends Application {
 
 			if (enteredCode.equals(correctCode)) {
 				dialog.setResult(ButtonType.OK);
-				model.checkWinCondition();
-				model.checkWinCondition();
+				model.submitChestCode(enteredCode);
 			} else {
 				feedbackText.setText("✗ Wrong code! Try again.");
 				codeInput.clear();
@@ -17,46 +17,110 @@ public class Map {
 	private List<Enemy> enemies;
 	private int keyCounter = 0;
 
+	// Grid-level systems kept in sync with cell changes
+	private final HierarchicalPathfinder pathfinder;
+
+	// Falling loose material
+	private final GravitySystem gravity;
+
+	// Air and gas spreading through open tiles
+	private final GasField gasField;
+
+	// Light levels from the miner's lamp and torches
+	private final LightEngine light;
+
+	// Free-flying bats released from swarm nests
+	private final BatSwarm swarm;
+
+	// Packed indices of the swarm nests
+	private int[] nests;
+
+	// Crash journal of world mutations, or null when not journaling
+	private WorldJournal journal;
+
+	// Undo history of tile changes, or null when not recording
+	private RewindBuffer rewind;
+
+	// Reused result of bulk changes
+	private final CellChangeSet changeSet = new CellChangeSet();
+
 	/**
 	 * Constructs a new map with the specified difficulty.
 	 *
 	 * @param miner the player character
 	 * @param model the game model for cell interactions
 	 * @param difficulty the difficulty level determining map layout
+	 * @param random the session's random service
 	 */
-	public Map(Miner miner, GameModel model, Difficulty difficulty) {
-		int[][] layout = switch (difficulty) {
-			case MEDIUM -> Difficulty.getMediumLayout();
-			case HARD -> Difficulty.getHardLayout();
-			default -> Difficulty.getEasyLayout();
-		};
+	public Map(Miner miner, GameModel model, Difficulty difficulty, GameRandom random) {
+		this(miner, model, difficulty.getLayout(), random);
+	}
 
-		this.rows = layout.length;
-		this.cols = layout[0].length;
+	/**
+	 * Constructs a map from a layout in the format of the {@link Difficulty} layouts, such as a
+	 * generated benchmark map.
+	 *
+	 * @param miner the player character
+	 * @param model the game model for cell interactions
+	 * @param layout the layout codes, indexed by row and column
+	 * @param random the session's random service
+	 */
+	Map(Miner miner, GameModel model, int[][] layout, GameRandom random) {
+		this(miner, model, layout, null, random);
+	}
+
+	/**
+	 * Constructs a map from a saved snapshot, without going through the difficulty layouts.
+	 *
+	 * @param miner the player character, already placed at its saved position
+	 * @param model the game model for cell interactions
+	 * @param snapshot the saved game state
+	 * @param random the session's random service
+	 */
+	public Map(Miner miner, GameModel model, GameSnapshot snapshot, GameRandom random) {
+		this(miner, model, null, snapshot, random);
+	}
 
+	/**
+	 * Builds the cells from either a layout or a snapshot, then the grid-level systems.
+	 */
+	private Map(Miner miner, GameModel model, int[][] layout, GameSnapshot snapshot, GameRandom random) {
 		this.enemies = new ArrayList<>();
+		this.cells = layout != null
+				? buildFromLayout(layout, miner, model)
+				: buildFromSnapshot(snapshot, miner, model);
+
+		this.pathfinder = new HierarchicalPathfinder(this);
+		this.gravity = new GravitySystem(this, miner);
+		this.gasField = new GasField(this);
+		this.light = new LightEngine(this, miner.getRow(), miner.getCol());
+		this.swarm = new BatSwarm(this, miner, nests, random.stream(GameRandom.Stream.SWARM));
+
+		if (snapshot != null) {
+			for (int torch : snapshot.torches) {
+				light.toggleTorch(torch / cols, torch % cols);
+			}
+		}
+	}
+
+	/**
+	 * Creates the cells, enemies and nests described by a difficulty layout.
+	 */
+	private Cell[][] buildFromLayout(int[][] layout, Miner miner, GameModel model) {
+		this.rows = layout.length;
+		this.cols = layout[0].length;
 
-		cells = new Cell[rows][cols];
+		List<Integer> nestList = new ArrayList<>();
+		Cell[][] cells = new Cell[rows][cols];
 		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < cols; j++) {
 				boolean enemy = false;
-				CellType type;
-				switch (layout[i][j]) {
-					case 1 -> type = CellType.SKY_WALKABLE;
-					case 2 -> type = CellType.GRASS;
-					case 3 -> type = CellType.DIRT;
-					case 4 -> type = CellType.SECRET_KEY;
-					case 5 -> type = CellType.FINAL_AREA;
-					case 6 -> type = CellType.FINAL_CHEST;
-					case 7 -> type = CellType.SHOP;
-					case 8 -> type = CellType.GRAVEL;
-					case 9 -> type = CellType.STONE;
-					case 10 -> type = CellType.COAL;
-					case 11 -> type = CellType.IRON;
-					case 12 -> type = CellType.GOLD;
-					case -1 -> {type = CellType.DESTROYED; enemy = true; enemies.add(new Enemy(miner, this,i,j));}
-					case 100 -> type = CellType.DESTROYED;
-					default -> type = CellType.SKY;
+				CellType type = layoutType(layout[i][j]);
+				if (layout[i][j] == -1) {
+					enemy = true;
+					enemies.add(new Enemy(miner, this, i, j));
+				} else if (layout[i][j] == -2) {
+					nestList.add(i * cols + j);
 				}
 
 				cells[i][j] = new Cell(type, miner, this, model);
@@ -69,6 +133,165 @@ public class Map {
 				cells[i][j].setPosition(i, j);
 			}
 		}
+		this.nests = nestList.stream().mapToInt(Integer::intValue).toArray();
+		return cells;
+	}
+
+	/**
+	 * Gets the cell type a difficulty layout code stands for. Enemy spawns and swarm nests
+	 * are open cells.
+	 *
+	 * @param code the layout code, as listed in {@link Difficulty}
+	 * @return the cell type for the code
+	 */
+	static CellType layoutType(int code) {
+		return switch (code) {
+			case 1 -> CellType.SKY_WALKABLE;
+			case 2 -> CellType.GRASS;
+			case 3 -> CellType.DIRT;
+			case 4 -> CellType.SECRET_KEY;
+			case 5 -> CellType.FINAL_AREA;
+			case 6 -> CellType.FINAL_CHEST;
+			case 7 -> CellType.SHOP;
+			case 8 -> CellType.GRAVEL;
+			case 9 -> CellType.STONE;
+			case 10 -> CellType.COAL;
+			case 11 -> CellType.IRON;
+			case 12 -> CellType.GOLD;
+			case -1, -2, 100 -> CellType.DESTROYED;
+			default -> CellType.SKY;
+		};
+	}
+
+	/**
+	 * Creates the cells, enemies and nests stored in a snapshot.
+	 */
+	private Cell[][] buildFromSnapshot(GameSnapshot snapshot, Miner miner, GameModel model) {
+		this.rows = snapshot.rows;
+		this.cols = snapshot.cols;
+
+		Cell[][] cells = new Cell[rows][cols];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				cells[i][j] = new Cell(snapshot.getType(i, j), miner, this, model);
+				cells[i][j].setPosition(i, j);
+			}
+		}
+		for (int k = 0; k < snapshot.hardnessCells.length; k++) {
+			int cell = snapshot.hardnessCells[k];
+			cells[cell / cols][cell % cols].restoreHardness(snapshot.hardnessValues[k]);
+		}
+		for (int k = 0; k < snapshot.keyCells.length; k++) {
+			int cell = snapshot.keyCells[k];
+			cells[cell / cols][cell % cols].setKeyIndex(snapshot.keyIndices[k]);
+			keyCounter = Math.max(keyCounter, snapshot.keyIndices[k] + 1);
+		}
+		for (int k = 0; k < snapshot.enemyRows.length; k++) {
+			Enemy enemy = new Enemy(miner, this, snapshot.enemyRows[k], snapshot.enemyCols[k]);
+			enemy.setDirection(snapshot.enemyDirections[k]);
+			enemies.add(enemy);
+			cells[snapshot.enemyRows[k]][snapshot.enemyCols[k]].setHasEnemy(true);
+		}
+		this.nests = snapshot.nests.clone();
+		return cells;
+	}
+
+	/**
+	 * Notifies the map that a cell has changed in a way that may affect walkability,
+	 * so that grid-level systems can update the affected region. The cell above is
+	 * checked for falling material, as it may have lost its support.
+	 *
+	 * @param row the row of the changed cell
+	 * @param col the column of the changed cell
+	 */
+	public void notifyCellChanged(int row, int col) {
+		if (pathfinder != null) {
+			pathfinder.updateCell(row, col);
+		}
+		if (gravity != null) {
+			gravity.activate(row - 1, col);
+		}
+		if (gasField != null) {
+			gasField.updateCell(row, col);
+		}
+		if (light != null) {
+			light.updateCell(row, col);
+		}
+		if (journal != null) {
+			journal.tileChanged(row, col, cells[row][col].getType());
+		}
+		if (rewind != null) {
+			rewind.tileChanged(row, col, cells[row][col].getType());
+		}
+	}
+
+	/**
+	 * Notifies the map that a batch of cells has changed, so that grid-level systems update once
+	 * for the whole batch. The pathfinder rebuilds the clusters under the bounding box once, and
+	 * the per-cell systems are updated for the changed cells only.
+	 *
+	 * @param changes the set of changed cells
+	 */
+	public void notifyRegion(CellChangeSet changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+		pathfinder.updateRegion(changes.getMinRow(), changes.getMinCol(),
+				changes.getMaxRow(), changes.getMaxCol());
+		for (int i = 0; i < changes.getCount(); i++) {
+			int row = changes.getCell(i) / cols;
+			int col = changes.getCell(i) % cols;
+			gravity.activate(row - 1, col);
+			gasField.updateCell(row, col);
+			light.updateCell(row, col);
+			if (journal != null) {
+				journal.tileChanged(row, col, cells[row][col].getType());
+			}
+			if (rewind != null) {
+				rewind.tileChanged(row, col, cells[row][col].getType());
+			}
+		}
+	}
+
+	// ========== BULK CHANGES ==========
+
+	/**
+	 * Destroys every destroyable cell within a square around a centre cell, as a bomb blast.
+	 * The cells are cleared without per-cell callbacks or restyling; the gold and keys they held
+	 * are collected in the returned change set, and the map is notified once for the whole area.
+	 * The caller is responsible for crediting the gold and keys and for redrawing the view.
+	 *
+	 * <p>The returned set is reused by the next bulk change.</p>
+	 *
+	 * @param centerRow the row of the blast centre
+	 * @param centerCol the column of the blast centre
+	 * @param radius the blast radius in cells; the area is {@code 2 * radius + 1} cells wide
+	 * @return the set of destroyed cells with the gold and keys they released
+	 */
+	public CellChangeSet destroyArea(int centerRow, int centerCol, int radius) {
+		changeSet.clear();
+		int fromRow = Math.max(0, centerRow - radius);
+		int toRow = Math.min(rows - 1, centerRow + radius);
+		int fromCol = Math.max(0, centerCol - radius);
+		int toCol = Math.min(cols - 1, centerCol + radius);
+
+		for (int r = fromRow; r <= toRow; r++) {
+			for (int c = fromCol; c <= toCol; c++) {
+				Cell cell = cells[r][c];
+				if (!cell.isDestroyable() || cell.getType() == CellType.DESTROYED) {
+					continue;
+				}
+				changeSet.addGold(cell.getGoldValue());
+				if (cell.getType() == CellType.SECRET_KEY) {
+					changeSet.addKey(cell.getKeyIndex());
+				}
+				cell.clearContents();
+				changeSet.addCell(r, c, cols);
+			}
+		}
+
+		notifyRegion(changeSet);
+		return changeSet;
 	}
 
 	/**
@@ -106,4 +329,76 @@ public class Map {
 	public List<Enemy> getEnemies() {
 		return enemies;
 	}
+
+	/**
+	 * Gets the system that makes loose material fall.
+	 *
+	 * @return the gravity system
+	 */
+	public GravitySystem getGravity() {
+		return gravity;
+	}
+
+	/**
+	 * Gets the air and gas concentration field.
+	 *
+	 * @return the gas field
+	 */
+	public GasField getGasField() {
+		return gasField;
+	}
+
+	/**
+	 * Sets the journal that records every tile change from now on.
+	 *
+	 * @param journal the world journal, or null to stop journaling
+	 */
+	void setJournal(WorldJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Sets the rewind buffer that lists every tile change from now on.
+	 *
+	 * @param rewind the rewind buffer, or null to stop recording
+	 */
+	void setRewindBuffer(RewindBuffer rewind) {
+		this.rewind = rewind;
+	}
+
+	/**
+	 * Gets the cells the bat swarm was released from.
+	 *
+	 * @return the packed indices of the swarm nests
+	 */
+	public int[] getNests() {
+		return nests;
+	}
+
+	/**
+	 * Gets the light engine holding the light level of every cell.
+	 *
+	 * @return the light engine
+	 */
+	public LightEngine getLight() {
+		return light;
+	}
+
+	/**
+	 * Gets the swarm of free-flying bats on this map.
+	 *
+	 * @return the bat swarm
+	 */
+	public BatSwarm getSwarm() {
+		return swarm;
+	}
+
+	/**
+	 * Gets the hierarchical pathfinder over the walkable cells of this map.
+	 *
+	 * @return the pathfinder instance
+	 */
+	public HierarchicalPathfinder getPathfinder() {
+		return pathfinder;
+	}
 }
\ No newline at end of file
@@ -1,15 +1,32 @@
 package application;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
 
 /**
  * Handles the visual representation and rendering of the game map.
  * Manages the GridPane display and cell visibility around the player.
  */
 public class MapView {
+	private static final double CELL_SIZE = 40;
+	private static final double SWARM_BAT_SIZE = 18;
+
 	private final GridPane gridPane;
 	private final GameModel gameModel;
 
+	// Overlay for sprites that move independently of the cell grid
+	private final Pane spriteLayer;
+	private final List<ImageView> swarmSprites = new ArrayList<>();
+	private Image swarmImage;
+
+	// Fog state: whether the first full pass has run
+	private boolean fogInitialized = false;
+
 	/**
 	 * Constructs a new MapView with the specified grid pane and game model.
 	 *
@@ -17,7 +34,19 @@ public class MapView {
 	 * @param gameModel the game model containing map data
 	 */
 	public MapView(GridPane gridPane, GameModel gameModel) {
+		this(gridPane, null, gameModel);
+	}
+
+	/**
+	 * Constructs a new MapView with an overlay layer for free-moving sprites.
+	 *
+	 * @param gridPane the JavaFX GridPane for displaying cells
+	 * @param spriteLayer the pane drawn above the grid for sprites, or null for none
+	 * @param gameModel the game model containing map data
+	 */
+	public MapView(GridPane gridPane, Pane spriteLayer, GameModel gameModel) {
 		this.gridPane = gridPane;
+		this.spriteLayer = spriteLayer;
 		this.gameModel = gameModel;
 		initializeGrid();
 	}
@@ -42,34 +71,111 @@ public class MapView {
 	 * Updates the visual appearance of all cells in the map.
 	 */
 	public void updateView() {
+		PerfCounters.VIEW_UPDATES.increment();
 		for (Cell[] row : gameModel.getMap().getCells()) {
 			for (Cell cell : row) {
 				cell.updateVisual();
 			}
 		}
+		gameModel.getInputTracer().mark(InputTracer.Phase.UPDATE);
 	}
 
 	/**
-	 * Reveals cells around the miner's position and sets mineable status.
-	 * Sky, walkable sky, and shop cells are always revealed.
+	 * Reveals the lit cells. Sky, walkable sky, and shop cells are always revealed.
+	 *
+	 * <p>Visibility follows the light levels kept by the map's {@link LightEngine}. After the
+	 * first pass only the cells whose light level changed since the last call are touched.</p>
 	 */
 	public void revealAroundMiner() {
-		int minerRow = gameModel.getMiner().getRow();
-		int minerCol = gameModel.getMiner().getCol();
-		int maxDistance = 2;
+		PerfCounters.REVEALS.increment();
+		long start = System.nanoTime();
+		GameEvents.Reveal event = new GameEvents.Reveal();
+		event.begin();
+		boolean full = !fogInitialized;
+		int touched = 0;
+		Map map = gameModel.getMap();
+		Cell[][] cells = map.getCells();
+		LightEngine light = map.getLight();
+		byte[] levels = light.getLevels();
+		int cols = map.getCols();
 
-		for (Cell[] row : gameModel.getMap().getCells()) {
-			for (Cell cell : row) {
-				if (cell.getType() == CellType.SKY || cell.getType() == CellType.SKY_WALKABLE ||
-						cell.getType() == CellType.SHOP) {
-					cell.setRevealed(true);
-				} else {
-					int distance = Math.abs(minerRow - cell.getRow()) + Math.abs(minerCol - cell.getCol());
-					// Reveal if within distance, otherwise unreveal
-					cell.setRevealed(distance <= maxDistance);
-					cell.setMineable(distance <= 1);
+		if (!fogInitialized) {
+			for (int i = 0; i < map.getRows(); i++) {
+				for (int j = 0; j < cols; j++) {
+					applyLight(cells[i][j], levels[i * cols + j]);
 				}
 			}
+			fogInitialized = true;
+		} else {
+			touched = light.getChangedCount();
+			for (int i = 0; i < light.getChangedCount(); i++) {
+				int cell = light.getChanged(i);
+				applyLight(cells[cell / cols][cell % cols], levels[cell]);
+			}
+		}
+		light.clearChanged();
+
+		if (event.shouldCommit()) {
+			event.cells = full ? map.getRows() * cols : touched;
+			event.full = full;
+			event.commit();
+		}
+		PerfCounters.REVEAL_TIME.recordSince(start);
+		gameModel.getInputTracer().mark(InputTracer.Phase.REVEAL);
+	}
+
+	/**
+	 * Shows or hides a cell according to its light level.
+	 */
+	private void applyLight(Cell cell, int level) {
+		if (isAlwaysRevealed(cell)) {
+			if (!cell.isRevealed()) {
+				cell.setRevealed(true);
+			}
+		} else if (cell.isRevealed() != (level > 0)) {
+			cell.setRevealed(level > 0);
+		}
+	}
+
+	private boolean isAlwaysRevealed(Cell cell) {
+		return cell.getType() == CellType.SKY || cell.getType() == CellType.SKY_WALKABLE ||
+				cell.getType() == CellType.SHOP;
+	}
+
+	/**
+	 * Positions the swarm bat sprites on the overlay layer.
+	 * Bats are only shown while the cell they are flying through is revealed.
+	 * Sprites are pooled, so this allocates only when the swarm grows.
+	 */
+	public void renderSwarm() {
+		if (spriteLayer == null) {
+			return;
+		}
+		BatSwarm swarm = gameModel.getMap().getSwarm();
+		Cell[][] cells = gameModel.getMap().getCells();
+
+		while (swarmSprites.size() < swarm.getCount()) {
+			if (swarmImage == null) {
+				swarmImage = new Image("file:img/bat.png");
+			}
+			ImageView sprite = new ImageView(swarmImage);
+			sprite.setFitWidth(SWARM_BAT_SIZE);
+			sprite.setFitHeight(SWARM_BAT_SIZE);
+			sprite.setMouseTransparent(true);
+			swarmSprites.add(sprite);
+			spriteLayer.getChildren().add(sprite);
+		}
+
+		for (int i = 0; i < swarm.getCount(); i++) {
+			ImageView sprite = swarmSprites.get(i);
+			float x = swarm.getX(i);
+			float y = swarm.getY(i);
+			boolean visible = cells[(int) y][(int) x].isRevealed();
+			sprite.setVisible(visible);
+			if (visible) {
+				sprite.setLayoutX(x * CELL_SIZE - SWARM_BAT_SIZE / 2);
+				sprite.setLayoutY(y * CELL_SIZE - SWARM_BAT_SIZE / 2);
+			}
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package application;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Named counters, gauges and latency histograms, written out in the Prometheus text format.
+ *
+ * <p>The registry only holds references to the metrics. Recording goes straight to the
+ * {@link LongAdder} or {@link LatencyHistogram} and never touches the registry, so it stays
+ * lock-free and allocation-free. Formatting happens only when the registry is written, on the
+ * thread that asks for it.</p>
+ *
+ * <p>Histograms are exported with one {@code le} bucket per power of two from
+ * {@value #MIN_BUCKET_EXPONENT} to {@value #MAX_BUCKET_EXPONENT} as an exponent of two
+ * nanoseconds (about 1 microsecond to 69 seconds), in seconds as Prometheus expects.</p>
+ */
+public class MetricsRegistry {
+
+	private static final int MIN_BUCKET_EXPONENT = 10;
+	private static final int MAX_BUCKET_EXPONENT = 36;
+
+	/**
+	 * A registered metric that can write itself.
+	 */
+	private interface Metric {
+		void write(Appendable out) throws IOException;
+	}
+
+	private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+	// ========== REGISTRATION ==========
+
+	/**
+	 * Registers a counter.
+	 *
+	 * @param name the metric name, ending in {@code _total} by convention
+	 * @param help the help text
+	 * @param counter the counter to export
+	 */
+	public void counter(String name, String help, LongAdder counter) {
+		metrics.add(out -> {
+			header(out, name, help, "counter");
+			out.append(name).append(' ').append(Long.toString(counter.sum())).append('\n');
+		});
+	}
+
+	/**
+	 * Registers a gauge whose value is read on every export.
+	 *
+	 * @param name the metric name
+	 * @param help the help text
+	 * @param value supplies the current value
+	 */
+	public void gauge(String name, String help, DoubleSupplier value) {
+		metrics.add(out -> {
+			header(out, name, help, "gauge");
+			out.append(name).append(' ').append(format(value.getAsDouble())).append('\n');
+		});
+	}
+
+	/**
+	 * Registers a latency histogram, exported in seconds.
+	 *
+	 * @param name the metric name, ending in {@code _seconds} by convention
+	 * @param help the help text
+	 * @param histogram the histogram to export
+	 */
+	public void histogram(String name, String help, LatencyHistogram histogram) {
+		metrics.add(out -> {
+			header(out, name, help, "histogram");
+			for (int exponent = MIN_BUCKET_EXPONENT; exponent <= MAX_BUCKET_EXPONENT; exponent++) {
+				long bound = 1L << exponent;
+				out.append(name).append("_bucket{le=\"").append(format(bound / 1e9)).append("\"} ")
+						.append(Long.toString(histogram.getCountAtOrBelow(bound - 1))).append('\n');
+			}
+			long count = histogram.getCount();
+			out.append(name).append("_bucket{le=\"+Inf\"} ").append(Long.toString(count)).append('\n');
+			out.append(name).append("_sum ").append(format(histogram.getSum() / 1e9)).append('\n');
+			out.append(name).append("_count ").append(Long.toString(count)).append('\n');
+		});
+	}
+
+	// ========== EXPORT ==========
+
+	/**
+	 * Writes all metrics in the Prometheus text exposition format, in registration order.
+	 *
+	 * @param out where to write
+	 * @throws IOException if writing fails
+	 */
+	public void write(Appendable out) throws IOException {
+		for (Metric metric : metrics) {
+			metric.write(out);
+		}
+	}
+
+	private static void header(Appendable out, String name, String help, String type) throws IOException {
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.9g", value);
+	}
+}
@@ -0,0 +1,91 @@
+package application;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves a {@link MetricsRegistry} over HTTP for Prometheus and similar scrapers.
+ *
+ * <p>The server listens on the loopback address only, so the metrics are visible to tools on
+ * the same machine and never to the network. {@code GET /metrics} returns the registry in the
+ * Prometheus text format. Requests are answered one at a time on a single daemon thread, so a
+ * scrape never runs on the JavaFX application thread and never keeps the game from exiting.</p>
+ */
+public class MetricsServer {
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	private MetricsServer(HttpServer server, ExecutorService executor) {
+		this.server = server;
+		this.executor = executor;
+	}
+
+	/**
+	 * Starts serving a registry on a loopback port.
+	 *
+	 * @param port the port, or 0 for any free port
+	 * @param registry the metrics to serve
+	 * @return the running server
+	 * @throws IOException if the port cannot be bound
+	 */
+	public static MetricsServer start(int port, MetricsRegistry registry) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "metrics-server");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext("/metrics", exchange -> serve(exchange, registry));
+		server.start();
+		return new MetricsServer(server, executor);
+	}
+
+	/**
+	 * Gets the port the server listens on.
+	 *
+	 * @return the bound port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	public void stop() {
+		server.stop(0);
+		executor.shutdown();
+	}
+
+	/**
+	 * Answers one request with the registry's current values.
+	 */
+	private static void serve(HttpExchange exchange, MetricsRegistry registry) throws IOException {
+		try (exchange) {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			StringBuilder text = new StringBuilder(8192);
+			registry.write(text);
+			byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+	}
+}
@@ -1,8 +1,19 @@
 package application;
 
+import java.util.function.LongSupplier;
+
 /**
  * Represents the player character with position, inventory, and status attributes.
  * Manages mining tools, oxygen levels, gold collection, and movement.
+ *
+ * <p>Oxygen is not decremented on a timer. It is stored as a piecewise linear function of the
+ * game tick: an anchor (the tick and oxygen value when the rate last changed) and a drain rate
+ * per second. The current value is computed on demand from the game clock. The function is
+ * re-anchored only when something changes it: a new drain rate, a refill at ground level, damage,
+ * or an upgrade. The anchor is kept in fixed point, in oxygen units times
+ * {@link GameModel#TICKS_PER_SECOND}, so the drain of every tick counts in full however often the
+ * rate changes. The tick at which the miner suffocates is known in advance from the anchor and
+ * the rate.</p>
  */
 public class Miner {
     private int row, col;
@@ -12,11 +23,21 @@ public class Miner {
     private String characterImage;
     private String pickaxeImage = "pickaxe-wood.png";
     private int goldAmount = 0;
+    private int bombs = 0;
     private int maxOxygen = 300;
-    private int currentOxygen = maxOxygen;
-    private int layerSize = 10;
     private int groundLevel = 4;
 
+    // Oxygen below this value ends the game
+    private static final int SUFFOCATION_LEVEL = -8;
+
+    // Piecewise oxygen: value at the anchor tick, minus the drain per second since then.
+    // The anchor value is in oxygen units times TICKS_PER_SECOND, so a tick drains drainRate.
+    private LongSupplier clock = () -> 0;
+    private long anchorTick = 0;
+    private long anchorUnits = (long) maxOxygen * GameModel.TICKS_PER_SECOND;
+    private int drainRate = 0;
+    private long suffocationTick = Long.MAX_VALUE;
+
     private Runnable loseCallback;
 
     /**
@@ -62,7 +83,7 @@ public class Miner {
      */
     public void setMaxOxygen(int maxOxygen) {
         this.maxOxygen = maxOxygen;
-        this.currentOxygen = maxOxygen;
+        anchorOxygen(toUnits(maxOxygen), drainRate);
     }
 
     /**
@@ -115,23 +136,32 @@ public class Miner {
     }
 
     /**
-     * Depletes oxygen based on depth and triggers game over if oxygen is too low.
-     * Oxygen refills when at ground level.
+     * Sets the game clock the oxygen function is evaluated against.
+     *
+     * @param clock supplies the current game tick
      */
-    public void depleteOxygen() {
-        currentOxygen -= row / layerSize + 1;
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+        this.anchorTick = clock.getAsLong();
+    }
 
-        if(currentOxygen < - 8) {
-            if(loseCallback != null) {
-                loseCallback.run();
+    /**
+     * Updates the oxygen drain rate for the air around the miner. At ground level the oxygen
+     * is refilled and does not drain. The oxygen function is re-anchored only when the rate
+     * changes or a refill is needed.
+     *
+     * @param drain the oxygen used up per second, from the local air and gas concentration
+     */
+    public void updateOxygenDrain(int drain) {
+        if(row == groundLevel) {
+            if(drainRate != 0 || currentUnits() != toUnits(maxOxygen)) {
+                anchorOxygen(toUnits(maxOxygen), 0);
             }
+            return;
         }
-
-        if(row == groundLevel) {
-            currentOxygen = maxOxygen;
+        if(drain != drainRate) {
+            anchorOxygen(currentUnits(), drain);
         }
-
-        System.out.println(currentOxygen);
     }
 
     /**
@@ -140,15 +170,88 @@ public class Miner {
      * @param damage the amount of damage to take
      */
     public void hurt(int damage) {
-        currentOxygen -= damage;
+        anchorOxygen(currentUnits() - toUnits(damage), drainRate);
 
-        if(currentOxygen < - 8) {
-            if(loseCallback != null) {
-                loseCallback.run();
-            }
+        if(toOxygen(anchorUnits) < SUFFOCATION_LEVEL) {
+            suffocate();
+        }
+    }
+
+    /**
+     * Restores the oxygen value at the current tick, as when loading a save. The drain rate
+     * is picked up again from the air at the next tick.
+     *
+     * @param oxygen the oxygen value
+     */
+    void restoreOxygen(int oxygen) {
+        anchorOxygen(toUnits(oxygen), 0);
+    }
+
+    /**
+     * Ends the game by suffocation. Called by the game model when the scheduled
+     * suffocation tick is reached.
+     */
+    public void suffocate() {
+        if(loseCallback != null) {
+            loseCallback.run();
         }
     }
 
+    /**
+     * Gets the tick at which the oxygen drops below the suffocation level if nothing
+     * changes the drain rate before then.
+     *
+     * @return the suffocation tick, or {@link Long#MAX_VALUE} if the oxygen is not draining
+     */
+    public long getSuffocationTick() {
+        return suffocationTick;
+    }
+
+    /**
+     * Starts a new piece of the oxygen function at the current tick.
+     *
+     * @param units the oxygen at the current tick, in fixed point
+     * @param rate the drain per second from now on
+     */
+    private void anchorOxygen(long units, int rate) {
+        anchorTick = clock.getAsLong();
+        anchorUnits = units;
+        drainRate = rate;
+
+        // The oxygen is below SUFFOCATION_LEVEL once the units are at most
+        // (SUFFOCATION_LEVEL - 1) * TICKS_PER_SECOND, and each tick drains rate units
+        long margin = units - toUnits(SUFFOCATION_LEVEL - 1);
+        if(rate <= 0) {
+            suffocationTick = Long.MAX_VALUE;
+        } else if(margin <= 0) {
+            suffocationTick = anchorTick;
+        } else {
+            suffocationTick = anchorTick + (margin + rate - 1) / rate;
+        }
+    }
+
+    /**
+     * Gets the oxygen at the current tick in fixed point.
+     */
+    private long currentUnits() {
+        return anchorUnits - drainRate * (clock.getAsLong() - anchorTick);
+    }
+
+    /**
+     * Converts an oxygen value to fixed point.
+     */
+    private static long toUnits(int oxygen) {
+        return (long) oxygen * GameModel.TICKS_PER_SECOND;
+    }
+
+    /**
+     * Converts fixed point to an oxygen value. A partly drained unit still counts, as the
+     * drain since the anchor is rounded down.
+     */
+    private static int toOxygen(long units) {
+        return (int) -Math.floorDiv(-units, GameModel.TICKS_PER_SECOND);
+    }
+
     /**
      * Sets the mining damage of tools.
      *
@@ -195,12 +298,12 @@ public class Miner {
     }
 
     /**
-     * Gets the current oxygen value.
+     * Gets the current oxygen value, evaluated from the oxygen function at the current tick.
      *
      * @return the current oxygen
      */
     public int getOxygen() {
-        return currentOxygen;
+        return toOxygen(currentUnits());
     }
 
     /**
@@ -237,7 +340,43 @@ public class Miner {
      */
     public void addGold(int amount) {
         this.goldAmount += amount;
-        System.out.println("GOLD ADDED");
+        GameLog.debug(GameLog.Category.ECONOMY, "Gold added: %d, now %d", amount, goldAmount);
+    }
+
+    /**
+     * Gets the number of bombs carried.
+     *
+     * @return the bomb count
+     */
+    public int getBombs() {
+        return bombs;
+    }
+
+    /**
+     * Adds a bomb to the miner's inventory.
+     */
+    public void addBomb() {
+        bombs++;
+    }
+
+    /**
+     * Sets the number of bombs carried, as when loading a save.
+     *
+     * @param bombs the bomb count
+     */
+    void setBombs(int bombs) {
+        this.bombs = bombs;
+    }
+
+    /**
+     * Removes one bomb from the miner's inventory if any is left.
+     *
+     * @return true if a bomb was used, false if none was carried
+     */
+    public boolean useBomb() {
+        if (bombs <= 0) return false;
+        bombs--;
+        return true;
     }
 
     /**
@@ -0,0 +1,87 @@
+package application;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counts of engine work, for the performance overlay and other diagnostics.
+ *
+ * <p>The counters only ever grow. Readers sample them and work with the difference between two
+ * samples, so any number of readers can share them without resetting each other. They are
+ * {@link LongAdder}s, so counting from the hot paths is a single uncontended add and never
+ * takes a lock. The latency histograms work the same way.</p>
+ *
+ * <p>{@link #register(MetricsRegistry)} publishes everything for export.</p>
+ */
+public final class PerfCounters {
+
+	/** Calls of {@link Cell#updateVisual()}. */
+	public static final LongAdder VISUAL_UPDATES = new LongAdder();
+
+	/** Full passes of {@link MapView#updateView()} over every cell. */
+	public static final LongAdder VIEW_UPDATES = new LongAdder();
+
+	/** Calls of {@link MapView#revealAroundMiner()}. */
+	public static final LongAdder REVEALS = new LongAdder();
+
+	/** Game ticks run by {@link GameModel#tick()}. */
+	public static final LongAdder TICKS = new LongAdder();
+
+	/** Enemy movement steps. */
+	public static final LongAdder ENEMY_STEPS = new LongAdder();
+
+	/** Oxygen updates, one per tick while the game runs. */
+	public static final LongAdder OXYGEN_TICKS = new LongAdder();
+
+	/** Duration of {@link GameModel#tick()}. */
+	public static final LatencyHistogram TICK_TIME = new LatencyHistogram();
+
+	/** Duration of {@link MapView#revealAroundMiner()}. */
+	public static final LatencyHistogram REVEAL_TIME = new LatencyHistogram();
+
+	/** Time to encode, compress and write a save file, on the save thread. */
+	public static final LatencyHistogram SAVE_TIME = new LatencyHistogram();
+
+	/**
+	 * Time from handling a key press or mouse release in the game screen to the end of the next
+	 * pulse's layout, after which the frame is handed to the renderer.
+	 */
+	public static final LatencyHistogram INPUT_LATENCY = new LatencyHistogram();
+
+	private PerfCounters() {
+	}
+
+	/**
+	 * Registers all counters and histograms, plus heap gauges, with a metrics registry.
+	 *
+	 * @param registry the registry to add the metrics to
+	 */
+	public static void register(MetricsRegistry registry) {
+		registry.counter("minequest_visual_updates_total", "Cell visual updates", VISUAL_UPDATES);
+		registry.counter("minequest_view_updates_total", "Full map view passes", VIEW_UPDATES);
+		registry.counter("minequest_reveals_total", "Fog of war reveal passes", REVEALS);
+		registry.counter("minequest_ticks_total", "Game ticks", TICKS);
+		registry.counter("minequest_enemy_steps_total", "Enemy movement steps", ENEMY_STEPS);
+		registry.counter("minequest_oxygen_ticks_total", "Oxygen updates", OXYGEN_TICKS);
+		registry.histogram("minequest_tick_seconds", "Game tick duration", TICK_TIME);
+		registry.histogram("minequest_reveal_seconds", "Fog of war reveal pass duration", REVEAL_TIME);
+		registry.histogram("minequest_save_seconds", "Save file write duration", SAVE_TIME);
+		registry.histogram("minequest_input_to_render_seconds",
+				"Time from input handling to the end of the next pulse's layout", INPUT_LATENCY);
+		for (InputTracer.Kind kind : InputTracer.Kind.values()) {
+			String name = kind.name().toLowerCase(Locale.ROOT);
+			registry.histogram("minequest_input_" + name + "_seconds",
+					"Input-to-layout time of " + name.replace('_', ' ') + " inputs", kind.getLatency());
+		}
+		for (InputTracer.Phase phase : InputTracer.Phase.values()) {
+			String name = phase.name().toLowerCase(Locale.ROOT);
+			registry.histogram("minequest_input_phase_" + name + "_seconds",
+					"Time inputs spend in the " + name + " phase", phase.getDuration());
+		}
+
+		Runtime runtime = Runtime.getRuntime();
+		registry.gauge("minequest_heap_used_bytes", "Heap in use",
+				() -> runtime.totalMemory() - runtime.freeMemory());
+		registry.gauge("minequest_heap_max_bytes", "Maximum heap size", runtime::maxMemory);
+	}
+}
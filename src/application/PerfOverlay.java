@@ -0,0 +1,152 @@
+package application;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * Heads-up display of engine statistics, drawn in a corner of the game screen.
+ *
+ * <p>While shown, the overlay times every frame and samples {@link PerfCounters} once per
+ * second. It then shows the frame rate, the longest frame of that second, the cell visual
+ * updates per frame, the full view passes and reveals per second, the enemy steps and oxygen
+ * ticks per second, the 99th percentile latency of arrow keys and cell clicks since the start,
+ * the number of nodes in the scene and the heap in use. The text changes only once per second,
+ * so the overlay adds almost no work of its own. While hidden, its timer is stopped.</p>
+ */
+public class PerfOverlay extends AnimationTimer {
+
+	private static final long SECOND_NANOS = 1_000_000_000L;
+
+	private final Label label = new Label();
+
+	// Frame timing over the current sample period
+	private long lastFrame = -1;
+	private long periodStart;
+	private long worstFrame;
+	private int frames;
+
+	// Counter values at the start of the current sample period
+	private long visualUpdates;
+	private long viewUpdates;
+	private long reveals;
+	private long enemySteps;
+	private long oxygenTicks;
+
+	/**
+	 * Constructs a hidden overlay and places it in the top right corner of the given pane.
+	 *
+	 * @param pane the game screen's stack pane
+	 */
+	public PerfOverlay(StackPane pane) {
+		label.setFont(Font.font("Monospaced", FontWeight.BOLD, 13));
+		label.setTextFill(Color.WHITE);
+		label.setStyle("-fx-background-color: rgba(0, 0, 0, 0.6); -fx-padding: 6;");
+		label.setMouseTransparent(true);
+		label.setVisible(false);
+		StackPane.setAlignment(label, Pos.TOP_RIGHT);
+		StackPane.setMargin(label, new Insets(10, 20, 0, 0));
+		pane.getChildren().add(label);
+	}
+
+	/**
+	 * Shows the overlay if it is hidden, or hides it if it is shown.
+	 */
+	public void toggle() {
+		if (label.isVisible()) {
+			stop();
+		} else {
+			label.setText("measuring...");
+			label.setVisible(true);
+			start();
+		}
+	}
+
+	/**
+	 * Times the frame and refreshes the text once a second has passed.
+	 *
+	 * @param now the frame timestamp in nanoseconds
+	 */
+	@Override
+	public void handle(long now) {
+		if (lastFrame < 0) {
+			lastFrame = now;
+			resetPeriod(now);
+			return;
+		}
+		worstFrame = Math.max(worstFrame, now - lastFrame);
+		lastFrame = now;
+		frames++;
+
+		long elapsed = now - periodStart;
+		if (elapsed >= SECOND_NANOS) {
+			double seconds = elapsed / (double) SECOND_NANOS;
+			Runtime runtime = Runtime.getRuntime();
+			long usedMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+			label.setText(String.format(
+					"FPS %5.1f   worst %6.1f ms%n"
+							+ "visuals/frame %8.1f%n"
+							+ "views/s %4.0f   reveals/s %4.0f%n"
+							+ "enemy steps/s %4.0f%n"
+							+ "oxygen ticks/s %4.0f%n"
+							+ "input p99 key %5.1f click %5.1f ms%n"
+							+ "nodes %d%n"
+							+ "heap %d / %d MB",
+					frames / seconds, worstFrame / 1e6,
+					(PerfCounters.VISUAL_UPDATES.sum() - visualUpdates) / (double) frames,
+					(PerfCounters.VIEW_UPDATES.sum() - viewUpdates) / seconds,
+					(PerfCounters.REVEALS.sum() - reveals) / seconds,
+					(PerfCounters.ENEMY_STEPS.sum() - enemySteps) / seconds,
+					(PerfCounters.OXYGEN_TICKS.sum() - oxygenTicks) / seconds,
+					InputTracer.Kind.ARROW_KEY.getLatency().getValueAtPercentile(99) / 1e6,
+					InputTracer.Kind.MINE_CLICK.getLatency().getValueAtPercentile(99) / 1e6,
+					countNodes(label.getScene().getRoot()),
+					usedMb, runtime.maxMemory() >> 20));
+			resetPeriod(now);
+		}
+	}
+
+	/**
+	 * Stops the timer and hides the overlay.
+	 */
+	@Override
+	public void stop() {
+		super.stop();
+		label.setVisible(false);
+		lastFrame = -1;
+	}
+
+	/**
+	 * Starts a new sample period at the given time.
+	 */
+	private void resetPeriod(long now) {
+		periodStart = now;
+		worstFrame = 0;
+		frames = 0;
+		visualUpdates = PerfCounters.VISUAL_UPDATES.sum();
+		viewUpdates = PerfCounters.VIEW_UPDATES.sum();
+		reveals = PerfCounters.REVEALS.sum();
+		enemySteps = PerfCounters.ENEMY_STEPS.sum();
+		oxygenTicks = PerfCounters.OXYGEN_TICKS.sum();
+	}
+
+	/**
+	 * Counts a node and all its descendants.
+	 */
+	private static int countNodes(Node node) {
+		int count = 1;
+		if (node instanceof Parent parent) {
+			for (Node child : parent.getChildrenUnmodifiable()) {
+				count += countNodes(child);
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,68 @@
+package application;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+import javafx.application.Platform;
+
+/**
+ * Command-line entry point that replays a recording headless at maximum speed.
+ *
+ * <p>Usage: {@code ReplayRunner <recording>}. The recording is played on the JavaFX
+ * application thread without a window or game loop, and a summary of the final state is
+ * printed, so a recording attached to a bug report can be checked in milliseconds. On a machine
+ * without a display, run it with the Monocle headless platform
+ * ({@code -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw}).</p>
+ */
+public class ReplayRunner {
+
+	/**
+	 * Replays the recording given as the first argument and prints the result.
+	 *
+	 * @param args the path of the recording
+	 * @throws Exception if the recording cannot be read or the toolkit fails to start
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: ReplayRunner <recording>");
+			System.exit(2);
+		}
+		Path path = Path.of(args[0]);
+
+		CountDownLatch done = new CountDownLatch(1);
+		Throwable[] failure = new Throwable[1];
+		Platform.startup(() -> {
+			try {
+				long loadStart = System.nanoTime();
+				InputReplayer replayer = InputReplayer.load(path);
+				long runStart = System.nanoTime();
+				long ticks = replayer.runHeadless();
+				long runEnd = System.nanoTime();
+
+				GameModel model = replayer.getModel();
+				System.out.printf("seed=%d difficulty=%s ticks=%d (%.1f s of game time)%n",
+						replayer.getSeed(), replayer.getDifficulty(), ticks,
+						ticks / (double) GameModel.TICKS_PER_SECOND);
+				System.out.printf("setup=%.1f ms replay=%.1f ms%n",
+						(runStart - loadStart) / 1e6, (runEnd - runStart) / 1e6);
+				System.out.printf("miner=(%d,%d) gold=%d oxygen=%d keys=%d/%d won=%b over=%b%n",
+						model.getMiner().getRow(), model.getMiner().getCol(),
+						model.getMiner().getGoldAmount(), model.getMiner().getOxygen(),
+						model.getKeysCollected(), model.getTotalKeys(),
+						model.isGameWon(), model.isGameOver());
+			} catch (Throwable t) {
+				failure[0] = t;
+			} finally {
+				done.countDown();
+			}
+		});
+		done.await();
+		Platform.exit();
+
+		if (failure[0] != null) {
+			GameLog.error(GameLog.Category.IO, "Replay of " + path + " failed", failure[0]);
+			GameLog.flush();
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package application;
+
+import java.util.List;
+
+/**
+ * Keeps the last {@value #CAPACITY_SECONDS} seconds of world changes, so the game can be
+ * stepped back in time.
+ *
+ * <p>The buffer is a ring of per-tick frames. A frame holds the state at the start of its tick
+ * that is cheap to copy in full: the miner's cell, oxygen, gold, bombs, upgrades and collected
+ * keys, and every enemy's cell and direction. Tiles are not copied. Instead each frame lists the tiles
+ * that changed during it, with the type they had before, in a second ring shared by all frames.
+ * A shadow copy of the tile types supplies the previous type, and a per-cell stamp makes sure a
+ * tile is listed at most once per frame.</p>
+ *
+ * <p>Stepping back N ticks restores the listed tiles of the last N frames, newest first, then
+ * the full state of the oldest of them, so the cost follows the number of changes and not the
+ * map size. All storage is allocated up front, so recording a tick creates no garbage. When the
+ * tile ring is full, the oldest frames are dropped.</p>
+ */
+public class RewindBuffer {
+
+	/** Seconds of game time kept in the buffer. */
+	public static final int CAPACITY_SECONDS = 10;
+
+	private final GameModel model;
+	private final Map map;
+	private final int cols;
+	private final int enemyCount;
+
+	// Frame ring: head is the open frame, count includes it
+	private final int frames;
+	private int head = -1;
+	private int count = 0;
+
+	// Per-frame state, indexed by frame (and by enemy for the enemy arrays)
+	private final int[] minerCell;
+	private final int[] oxygen;
+	private final int[] gold;
+	private final int[] bombs;
+	private final byte[] pickaxeLevel;
+	private final int[] toolsDamage;
+	private final byte[] oxygenLevel;
+	private final int[] maxOxygen;
+	private final byte[] keys;
+	private final int[] enemyCell;
+	private final byte[] enemyDirection;
+	private final long[] tileStart;
+
+	// Tile ring of packed cell index and previous type; positions are running totals
+	private final int[] tileCell;
+	private final byte[] tileType;
+	private long tileHead = 0;
+
+	// Tile types as of the last recorded change, and the frame each cell was last listed in
+	private final byte[] shadow;
+	private final int[] stamp;
+	private int frameStamp = 0;
+
+	// Set while rewinding, so restored tiles are not recorded again
+	private boolean restoring = false;
+
+	/**
+	 * Constructs a rewind buffer for a game and opens its first frame.
+	 *
+	 * @param model the game to record
+	 */
+	public RewindBuffer(GameModel model) {
+		this.model = model;
+		this.map = model.getMap();
+		this.cols = map.getCols();
+		this.enemyCount = map.getEnemies().size();
+
+		int cells = map.getRows() * cols;
+		frames = CAPACITY_SECONDS * GameModel.TICKS_PER_SECOND + 1;
+		minerCell = new int[frames];
+		oxygen = new int[frames];
+		gold = new int[frames];
+		bombs = new int[frames];
+		pickaxeLevel = new byte[frames];
+		toolsDamage = new int[frames];
+		oxygenLevel = new byte[frames];
+		maxOxygen = new int[frames];
+		keys = new byte[frames];
+		enemyCell = new int[frames * enemyCount];
+		enemyDirection = new byte[frames * enemyCount];
+		tileStart = new long[frames];
+
+		int tiles = Math.max(4096, cells);
+		tileCell = new int[tiles];
+		tileType = new byte[tiles];
+		shadow = new byte[cells];
+		stamp = new int[cells];
+
+		Cell[][] grid = map.getCells();
+		for (int r = 0; r < map.getRows(); r++) {
+			for (int c = 0; c < cols; c++) {
+				shadow[r * cols + c] = (byte) grid[r][c].getType().ordinal();
+			}
+		}
+		beginFrame();
+	}
+
+	// ========== RECORDING ==========
+
+	/**
+	 * Closes the open frame and opens a new one holding the current state.
+	 * Called at the start of every game tick.
+	 */
+	public void beginFrame() {
+		head = (head + 1) % frames;
+		if (count == frames) {
+			count--;
+		}
+		count++;
+		frameStamp++;
+
+		Miner miner = model.getMiner();
+		minerCell[head] = miner.getRow() * cols + miner.getCol();
+		oxygen[head] = miner.getOxygen();
+		gold[head] = miner.getGoldAmount();
+		bombs[head] = miner.getBombs();
+		pickaxeLevel[head] = (byte) miner.getPickaxeLevel();
+		toolsDamage[head] = miner.getToolsDamage();
+		oxygenLevel[head] = (byte) miner.getOxygenLevel();
+		maxOxygen[head] = miner.getMaxOxygen();
+		int mask = 0;
+		KeyCodeManager keyCodes = model.getKeyCodeManager();
+		for (int i = 0; i < model.getTotalKeys(); i++) {
+			if (keyCodes.isKeyCollected(i)) {
+				mask |= 1 << i;
+			}
+		}
+		keys[head] = (byte) mask;
+
+		List<Enemy> enemies = map.getEnemies();
+		int base = head * enemyCount;
+		for (int i = 0; i < enemyCount; i++) {
+			Enemy enemy = enemies.get(i);
+			enemyCell[base + i] = enemy.getRow() * cols + enemy.getCol();
+			enemyDirection[base + i] = (byte) enemy.getDirection();
+		}
+		tileStart[head] = tileHead;
+	}
+
+	/**
+	 * Lists a tile change in the open frame, unless the tile is already listed there.
+	 *
+	 * @param row the row of the tile
+	 * @param col the column of the tile
+	 * @param type the new cell type
+	 */
+	public void tileChanged(int row, int col, CellType type) {
+		int cell = row * cols + col;
+		if (!restoring && stamp[cell] != frameStamp) {
+			stamp[cell] = frameStamp;
+			while (tileHead - tileStart[oldest()] >= tileCell.length && count > 1) {
+				count--;
+			}
+			int slot = (int) (tileHead % tileCell.length);
+			tileCell[slot] = cell;
+			tileType[slot] = shadow[cell];
+			tileHead++;
+		}
+		shadow[cell] = (byte) type.ordinal();
+	}
+
+	// ========== REWINDING ==========
+
+	/**
+	 * Steps the world back by up to the given number of ticks. The open frame counts as one
+	 * tick. The frame rewound to stays open, so recording continues from the restored state.
+	 *
+	 * @param ticks the number of ticks to step back
+	 * @return the number of ticks actually stepped back
+	 */
+	public int rewind(int ticks) {
+		int n = Math.min(ticks, count - 1);
+		if (n <= 0) {
+			return 0;
+		}
+		int target = (head - n + frames) % frames;
+		Cell[][] cells = map.getCells();
+		CellType[] types = CellType.values();
+
+		// Undo tile changes newest first, back to the start of the target frame
+		restoring = true;
+		for (long t = tileHead - 1; t >= tileStart[target]; t--) {
+			int slot = (int) (t % tileCell.length);
+			int cell = tileCell[slot];
+			cells[cell / cols][cell % cols].setContents(types[tileType[slot]]);
+		}
+		restoring = false;
+		tileHead = tileStart[target];
+
+		Miner miner = model.getMiner();
+		model.placeMiner(minerCell[target] / cols, minerCell[target] % cols);
+
+		// Upgrades bought since are taken back; the stored values also cover the starting tools,
+		// which are not a shop level
+		if (miner.getPickaxeLevel() != pickaxeLevel[target]) {
+			Shop.applyPickaxeLevel(miner, pickaxeLevel[target]);
+			miner.setToolsDamage(toolsDamage[target]);
+		}
+		if (miner.getOxygenLevel() != oxygenLevel[target]) {
+			Shop.applyOxygenLevel(miner, oxygenLevel[target]);
+			miner.setMaxOxygen(maxOxygen[target]);
+		}
+		miner.restoreOxygen(oxygen[target]);
+		miner.setGoldAmount(gold[target]);
+		miner.setBombs(bombs[target]);
+		model.restoreKeys(keys[target]);
+		model.restoreEnemies(enemyCell, enemyDirection, target * enemyCount);
+
+		head = target;
+		count -= n;
+		frameStamp++;
+		return n;
+	}
+
+	/**
+	 * Gets the number of ticks that can currently be stepped back.
+	 *
+	 * @return the rewind depth in ticks
+	 */
+	public int getDepth() {
+		return count - 1;
+	}
+
+	private int oldest() {
+		return (head - count + 1 + frames) % frames;
+	}
+}
@@ -0,0 +1,90 @@
+package application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Saves and loads games as compressed {@link GameSnapshot} files.
+ *
+ * <p>Saving is split in two. The snapshot is captured on the JavaFX application thread, which
+ * only copies arrays, and the encoding, compression and file write run on a single background
+ * thread, so a save never holds up a frame. The file is first written next to the target and
+ * then moved over it, so a crash during the write leaves the previous save intact. Saves are
+ * written in the order they were requested.</p>
+ */
+public class SaveManager {
+
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "save-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Captures the game and writes it to a file in the background.
+	 * Must be called on the thread that runs the game.
+	 *
+	 * @param model the game to save
+	 * @param path the save file
+	 * @return a future that completes when the file has been written, or fails with the I/O error
+	 */
+	public CompletableFuture<Void> saveAsync(GameModel model, Path path) {
+		GameSnapshot snapshot = GameSnapshot.capture(model);
+		return CompletableFuture.runAsync(() -> {
+			try {
+				write(snapshot, path);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, writer);
+	}
+
+	/**
+	 * Reads a save file written by {@link #saveAsync(GameModel, Path)}. The returned snapshot is
+	 * turned into a game with {@link GameModel#GameModel(GameSnapshot)} on the JavaFX application
+	 * thread.
+	 *
+	 * @param path the save file
+	 * @return the saved game state
+	 * @throws IOException if the file cannot be read or is not a supported save
+	 */
+	public static GameSnapshot load(Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new InflaterInputStream(Files.newInputStream(path))))) {
+			return GameSnapshot.read(in);
+		}
+	}
+
+	/**
+	 * Encodes and compresses a snapshot into a temporary file, then moves it over the target.
+	 */
+	private static void write(GameSnapshot snapshot, Path path) throws IOException {
+		long start = System.nanoTime();
+		Path dir = path.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		Path tmp = dir.resolve(path.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new DeflaterOutputStream(Files.newOutputStream(tmp))))) {
+			snapshot.write(out);
+		}
+		try {
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		PerfCounters.SAVE_TIME.recordSince(start);
+	}
+}
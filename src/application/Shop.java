@@ -29,6 +29,8 @@ public class Shop {
             {20, 100}     // Level 4: 100 seconds, 100 gold cost
     };
 
+    private static final int BOMB_COST = 25;
+
     /**
      * Purchases a pickaxe upgrade for the miner if affordable and not at max level.
      *
@@ -58,10 +60,7 @@ public class Shop {
             return false;
         }
 
-        miner.setPickaxeLevel(nextLevel);
-        int newDamage = PICKAXE_UPGRADES[nextLevel][0];
-        miner.setToolsDamage(newDamage);
-        miner.setPickaxeImage(PICKAXE_IMAGES[nextLevel]);
+        applyPickaxeLevel(miner, nextLevel);
         model.notifyGoldChanged();
 
         return true;
@@ -96,14 +95,83 @@ public class Shop {
             return false;
         }
 
-        miner.setOxygenLevel(nextLevel);
-        int newOxygen = OXYGEN_UPGRADES[nextLevel][0];
-        miner.setMaxOxygen(newOxygen);
+        applyOxygenLevel(miner, nextLevel);
+        model.notifyGoldChanged();
+
+        return true;
+    }
+
+    /**
+     * Checks whether a pickaxe level exists in the shop.
+     *
+     * @param level the pickaxe level
+     * @return true if the level is in the upgrade table
+     */
+    static boolean isPickaxeLevel(int level) {
+        return level >= 0 && level < PICKAXE_UPGRADES.length;
+    }
+
+    /**
+     * Checks whether an oxygen level exists in the shop.
+     *
+     * @param level the oxygen level
+     * @return true if the level is in the upgrade table
+     */
+    static boolean isOxygenLevel(int level) {
+        return level >= 0 && level < OXYGEN_UPGRADES.length;
+    }
+
+    /**
+     * Gives the miner the damage and image of a pickaxe level, without charging for it.
+     *
+     * @param miner the miner to upgrade
+     * @param level the pickaxe level
+     */
+    static void applyPickaxeLevel(Miner miner, int level) {
+        miner.setPickaxeLevel(level);
+        miner.setToolsDamage(PICKAXE_UPGRADES[level][0]);
+        miner.setPickaxeImage(PICKAXE_IMAGES[level]);
+    }
+
+    /**
+     * Gives the miner the oxygen capacity of an oxygen level, without charging for it.
+     *
+     * @param miner the miner to upgrade
+     * @param level the oxygen level
+     */
+    static void applyOxygenLevel(Miner miner, int level) {
+        miner.setOxygenLevel(level);
+        miner.setMaxOxygen(OXYGEN_UPGRADES[level][0]);
+    }
+
+    /**
+     * Purchases one bomb for the miner if affordable.
+     *
+     * @param miner the miner buying the bomb
+     * @param model the game model for notifications
+     * @return true if the purchase was successful, false otherwise
+     */
+    public static boolean buyBomb(Miner miner, GameModel model) {
+        if (!miner.subtractGold(BOMB_COST)) {
+            return false;
+        }
+
+        miner.addBomb();
         model.notifyGoldChanged();
+        model.notifyBombsChanged();
 
         return true;
     }
 
+    /**
+     * Gets the cost of one bomb.
+     *
+     * @return the bomb cost
+     */
+    public static int getBombCost() {
+        return BOMB_COST;
+    }
+
     /**
      * Gets the next available pickaxe level.
      *
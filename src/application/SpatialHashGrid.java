@@ -0,0 +1,139 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid index for neighbour queries over points with sub-tile positions.
+ *
+ * <p>The grid is rebuilt from scratch every tick with a counting sort: points are counted per
+ * bucket, the counts are turned into start offsets, and point indices are scattered into a
+ * single array. All arrays are allocated up front, so a rebuild never allocates. Callers walk
+ * the buckets around a position with {@link #bucketStart} and {@link #bucketEnd} and read point
+ * indices with {@link #entry}.</p>
+ */
+public class SpatialHashGrid {
+
+	private final float bucketSize;
+	private final int bucketCols;
+	private final int bucketRows;
+
+	private final int[] bucketStarts;
+	private final int[] bucketOf;
+	private int[] entries;
+
+	/**
+	 * Constructs a grid covering the given world area.
+	 *
+	 * @param width the world width in tiles
+	 * @param height the world height in tiles
+	 * @param bucketSize the edge length of a bucket in tiles, usually the query radius
+	 * @param capacity the expected maximum number of points
+	 */
+	public SpatialHashGrid(int width, int height, float bucketSize, int capacity) {
+		this.bucketSize = bucketSize;
+		this.bucketCols = Math.max(1, (int) Math.ceil(width / bucketSize));
+		this.bucketRows = Math.max(1, (int) Math.ceil(height / bucketSize));
+		this.bucketStarts = new int[bucketCols * bucketRows + 1];
+		this.bucketOf = new int[Math.max(1, capacity)];
+		this.entries = new int[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Rebuilds the index from the given point positions.
+	 *
+	 * @param x the x coordinates (columns) of the points
+	 * @param y the y coordinates (rows) of the points
+	 * @param count the number of points to index
+	 */
+	public void rebuild(float[] x, float[] y, int count) {
+		if (count > entries.length) {
+			throw new IllegalArgumentException("Grid capacity exceeded: " + count);
+		}
+		Arrays.fill(bucketStarts, 0);
+
+		for (int i = 0; i < count; i++) {
+			int bucket = bucketIndex(bucketCol(x[i]), bucketRow(y[i]));
+			bucketOf[i] = bucket;
+			bucketStarts[bucket + 1]++;
+		}
+		for (int b = 0; b < bucketStarts.length - 1; b++) {
+			bucketStarts[b + 1] += bucketStarts[b];
+		}
+		for (int i = 0; i < count; i++) {
+			entries[bucketStarts[bucketOf[i]]++] = i;
+		}
+		// Shift the starts back after using them as insertion cursors
+		for (int b = bucketStarts.length - 1; b > 0; b--) {
+			bucketStarts[b] = bucketStarts[b - 1];
+		}
+		bucketStarts[0] = 0;
+	}
+
+	/**
+	 * Gets the bucket column containing an x coordinate, clamped to the grid.
+	 *
+	 * @param x the x coordinate in tiles
+	 * @return the bucket column
+	 */
+	public int bucketCol(float x) {
+		return clamp((int) (x / bucketSize), bucketCols);
+	}
+
+	/**
+	 * Gets the bucket row containing a y coordinate, clamped to the grid.
+	 *
+	 * @param y the y coordinate in tiles
+	 * @return the bucket row
+	 */
+	public int bucketRow(float y) {
+		return clamp((int) (y / bucketSize), bucketRows);
+	}
+
+	/**
+	 * Gets the index of a bucket, or -1 if it lies outside the grid.
+	 *
+	 * @param col the bucket column
+	 * @param row the bucket row
+	 * @return the bucket index, or -1 if out of range
+	 */
+	public int bucketIndex(int col, int row) {
+		if (col < 0 || row < 0 || col >= bucketCols || row >= bucketRows) {
+			return -1;
+		}
+		return row * bucketCols + col;
+	}
+
+	/**
+	 * Gets the first entry position of a bucket.
+	 *
+	 * @param bucket the bucket index
+	 * @return the inclusive start position in the entry array
+	 */
+	public int bucketStart(int bucket) {
+		return bucketStarts[bucket];
+	}
+
+	/**
+	 * Gets the end entry position of a bucket.
+	 *
+	 * @param bucket the bucket index
+	 * @return the exclusive end position in the entry array
+	 */
+	public int bucketEnd(int bucket) {
+		return bucketStarts[bucket + 1];
+	}
+
+	/**
+	 * Gets the point index stored at an entry position.
+	 *
+	 * @param position the entry position
+	 * @return the index of the point
+	 */
+	public int entry(int position) {
+		return entries[position];
+	}
+
+	private static int clamp(int value, int size) {
+		return value < 0 ? 0 : (value >= size ? size - 1 : value);
+	}
+}
@@ -0,0 +1,504 @@
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends every world mutation of a session to a memory-mapped log, so that the session can be
+ * restored after a crash.
+ *
+ * <p>Recovery starts from the base layout of the session's {@link Difficulty} and replays the
+ * logged entries on top of it. Each entry is a one-byte opcode followed by its arguments as
+ * varints, so most entries take two to four bytes. Entries are written straight into a mapped
+ * file: the bytes reach the operating system's page cache as soon as they are stored, so they
+ * survive a crash of the game process without any write call or fsync on the game thread. A
+ * background thread forces the mapping to disk once per second to also cover a crash of the
+ * machine.</p>
+ *
+ * <p>An entry's arguments are stored before its opcode. The file is zero-filled when created and
+ * opcode 0 marks the end of the log, so an entry cut short by a crash is never replayed.</p>
+ *
+ * <p>The log alternates between two files. At a checkpoint, every {@value #CHECKPOINT_SECONDS}
+ * seconds or when the current file is three quarters full, the state is compacted into the other
+ * file: one entry per tile that differs from the base layout and one per other value. That file's
+ * header carries a higher generation and its magic is written last, so until the checkpoint is
+ * complete, recovery keeps using the previous file.</p>
+ */
+public class WorldJournal {
+
+	/**
+	 * The journal entries, with their opcodes.
+	 */
+	enum Entry {
+		/** End of the log. */
+		END,
+		/** A tile changed: packed cell index, cell type ordinal. */
+		TILE,
+		/** The gold amount changed: gold. */
+		GOLD,
+		/** The bomb count changed: bombs. */
+		BOMBS,
+		/** A key was collected: key index. */
+		KEY,
+		/** A pickaxe upgrade was bought: pickaxe level. */
+		PICKAXE,
+		/** An oxygen upgrade was bought: oxygen level. */
+		OXYGEN_UPGRADE,
+		/** A torch was placed or picked up: packed cell index. */
+		TORCH,
+		/** The miner moved: packed cell index. */
+		MOVE,
+		/** The oxygen changed: oxygen, zigzag encoded. */
+		OXYGEN
+	}
+
+	/** File magic and format version. */
+	private static final byte[] MAGIC = {'M', 'Q', 'J'};
+	private static final int VERSION = 1;
+
+	/** Size of each journal file. */
+	private static final int CAPACITY = 64 * 1024;
+
+	/** Seconds of game time between two checkpoints. */
+	private static final int CHECKPOINT_SECONDS = 60;
+
+	/** Longest possible entry: an opcode and two five-byte varints. */
+	private static final int MAX_ENTRY = 11;
+
+	private final Path[] files;
+	private final GameModel model;
+	private final byte[] header;
+
+	// Current file, write position and generation
+	private volatile MappedByteBuffer buffer;
+	private int pos;
+	private long generation;
+	private long lastCheckpointTick;
+	private int lastOxygen;
+	private boolean closed = false;
+
+	private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "journal-flush");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Constructs a journal for a game and writes its first checkpoint.
+	 * Use {@link GameModel#startJournal(Path)} to attach the journal to the game.
+	 *
+	 * @param dir the journal directory
+	 * @param model the game to journal
+	 * @throws IOException if the journal files cannot be created
+	 */
+	WorldJournal(Path dir, GameModel model) throws IOException {
+		Files.createDirectories(dir);
+		this.files = new Path[] {dir.resolve("journal-0.bin"), dir.resolve("journal-1.bin")};
+		this.model = model;
+		this.header = encodeHeader(model);
+		this.generation = Math.max(readGeneration(files[0]), readGeneration(files[1]));
+		compact();
+
+		flusher.scheduleWithFixedDelay(() -> {
+			MappedByteBuffer current = buffer;
+			if (current != null) {
+				current.force();
+			}
+		}, 1, 1, TimeUnit.SECONDS);
+	}
+
+	// ========== WORLD MUTATIONS ==========
+
+	/**
+	 * Logs a tile change.
+	 *
+	 * @param row the row of the tile
+	 * @param col the column of the tile
+	 * @param type the new cell type
+	 */
+	public void tileChanged(int row, int col, CellType type) {
+		append(Entry.TILE, row * model.getMap().getCols() + col, type.ordinal());
+	}
+
+	/**
+	 * Logs a new gold amount.
+	 *
+	 * @param gold the miner's gold
+	 */
+	public void goldChanged(int gold) {
+		append(Entry.GOLD, gold, -1);
+	}
+
+	/**
+	 * Logs a new bomb count.
+	 *
+	 * @param bombs the miner's bombs
+	 */
+	public void bombsChanged(int bombs) {
+		append(Entry.BOMBS, bombs, -1);
+	}
+
+	/**
+	 * Logs a collected key.
+	 *
+	 * @param keyIndex the index of the key
+	 */
+	public void keyCollected(int keyIndex) {
+		append(Entry.KEY, keyIndex, -1);
+	}
+
+	/**
+	 * Logs a bought pickaxe upgrade.
+	 *
+	 * @param level the new pickaxe level
+	 */
+	public void pickaxeUpgraded(int level) {
+		append(Entry.PICKAXE, level, -1);
+	}
+
+	/**
+	 * Logs a bought oxygen upgrade.
+	 *
+	 * @param level the new oxygen level
+	 */
+	public void oxygenUpgraded(int level) {
+		append(Entry.OXYGEN_UPGRADE, level, -1);
+	}
+
+	/**
+	 * Logs a torch placed or picked up.
+	 *
+	 * @param row the row of the torch
+	 * @param col the column of the torch
+	 */
+	public void torchToggled(int row, int col) {
+		append(Entry.TORCH, row * model.getMap().getCols() + col, -1);
+	}
+
+	/**
+	 * Logs a miner move.
+	 *
+	 * @param row the new row of the miner
+	 * @param col the new column of the miner
+	 */
+	public void minerMoved(int row, int col) {
+		append(Entry.MOVE, row * model.getMap().getCols() + col, -1);
+	}
+
+	/**
+	 * Logs the oxygen when it has changed and writes a checkpoint when one is due.
+	 * Called at the end of every game tick.
+	 *
+	 * @param tick the current tick
+	 * @param oxygen the miner's oxygen
+	 */
+	public void afterTick(long tick, int oxygen) {
+		if (oxygen != lastOxygen) {
+			lastOxygen = oxygen;
+			append(Entry.OXYGEN, zigzag(oxygen), -1);
+		}
+		if (tick - lastCheckpointTick >= (long) CHECKPOINT_SECONDS * GameModel.TICKS_PER_SECOND) {
+			lastCheckpointTick = tick;
+			checkpoint();
+		}
+	}
+
+	/**
+	 * Writes a checkpoint after the game was rewound. A rewind also takes back key pickups and
+	 * upgrades, which have no entries of their own, so the state is written out in full.
+	 */
+	public void rewound() {
+		checkpoint();
+	}
+
+	/**
+	 * Stops journaling and deletes the journal files, as when the game has ended.
+	 */
+	public void discard() {
+		close();
+		for (Path file : files) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				// A journal left behind is overwritten by the next session
+			}
+		}
+	}
+
+	/**
+	 * Stops journaling and flushes the current file, keeping it for recovery.
+	 */
+	public void close() {
+		closed = true;
+		flusher.shutdown();
+		MappedByteBuffer current = buffer;
+		buffer = null;
+		if (current != null) {
+			current.force();
+		}
+	}
+
+	// ========== WRITING ==========
+
+	/**
+	 * Writes an entry with up to two arguments; an argument of -1 is left out.
+	 * The opcode is stored last, so the entry only becomes visible once complete.
+	 */
+	private void append(Entry entry, int arg1, int arg2) {
+		if (closed) {
+			return;
+		}
+		if (pos + MAX_ENTRY > CAPACITY * 3 / 4) {
+			checkpoint();
+			if (pos + MAX_ENTRY > CAPACITY) {
+				return;
+			}
+		}
+		int start = pos;
+		pos++;
+		if (arg1 >= 0) {
+			pos = putVarint(buffer, pos, arg1);
+		}
+		if (arg2 >= 0) {
+			pos = putVarint(buffer, pos, arg2);
+		}
+		buffer.put(start, (byte) entry.ordinal());
+	}
+
+	/**
+	 * Writes a checkpoint, unless the journal is closed. If the other file cannot be opened,
+	 * writing continues in the current file and the next checkpoint tries again.
+	 */
+	private void checkpoint() {
+		if (closed) {
+			return;
+		}
+		try {
+			compact();
+		} catch (IOException e) {
+			// Keep the current file
+		}
+	}
+
+	/**
+	 * Compacts the current state into the other journal file and continues writing there.
+	 */
+	private void compact() throws IOException {
+		Path file = files[(int) ((generation + 1) % 2)];
+		MappedByteBuffer next;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			next = channel.map(FileChannel.MapMode.READ_WRITE, 0, CAPACITY);
+		}
+
+		generation++;
+		int start = MAGIC.length + 1;
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			next.put(start++, (byte) (generation >>> shift));
+		}
+		for (byte b : header) {
+			next.put(start++, b);
+		}
+		buffer = next;
+		pos = start;
+		writeState();
+		next.put(MAGIC.length, (byte) VERSION);
+		for (int i = 0; i < MAGIC.length; i++) {
+			next.put(i, MAGIC[i]);
+		}
+	}
+
+	/**
+	 * Writes the entries that rebuild the current state on top of the base layout.
+	 */
+	private void writeState() {
+		Map map = model.getMap();
+		Miner miner = model.getMiner();
+		Cell[][] cells = map.getCells();
+		int[][] layout = model.getDifficulty().getLayout();
+		for (int r = 0; r < map.getRows(); r++) {
+			for (int c = 0; c < map.getCols(); c++) {
+				CellType type = cells[r][c].getType();
+				if (type != Map.layoutType(layout[r][c])) {
+					tileChanged(r, c, type);
+				}
+			}
+		}
+		for (int torch : map.getLight().getTorches()) {
+			append(Entry.TORCH, torch, -1);
+		}
+		KeyCodeManager keys = model.getKeyCodeManager();
+		for (int i = 0; i < model.getTotalKeys(); i++) {
+			if (keys.isKeyCollected(i)) {
+				keyCollected(i);
+			}
+		}
+		goldChanged(miner.getGoldAmount());
+		bombsChanged(miner.getBombs());
+		if (miner.getPickaxeLevel() > 0) {
+			pickaxeUpgraded(miner.getPickaxeLevel());
+		}
+		if (miner.getOxygenLevel() > 0) {
+			oxygenUpgraded(miner.getOxygenLevel());
+		}
+		minerMoved(miner.getRow(), miner.getCol());
+		lastOxygen = miner.getOxygen();
+		append(Entry.OXYGEN, zigzag(lastOxygen), -1);
+	}
+
+	/**
+	 * Encodes the session part of the file header: seed, difficulty and character image.
+	 */
+	private static byte[] encodeHeader(GameModel model) {
+		byte[] name = model.getMiner().getCharacterImage().getBytes(StandardCharsets.UTF_8);
+		byte[] data = new byte[8 + 1 + 5 + name.length];
+		long seed = model.getRandom().getSeed();
+		int n = 0;
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			data[n++] = (byte) (seed >>> shift);
+		}
+		data[n++] = (byte) model.getDifficulty().ordinal();
+		int value = name.length;
+		while ((value & ~0x7F) != 0) {
+			data[n++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data[n++] = (byte) value;
+		System.arraycopy(name, 0, data, n, name.length);
+		return Arrays.copyOf(data, n + name.length);
+	}
+
+	private static int putVarint(MappedByteBuffer buffer, int pos, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put(pos++, (byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put(pos++, (byte) value);
+		return pos;
+	}
+
+	private static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	// ========== RECOVERY ==========
+
+	/**
+	 * Restores the session logged in a journal directory, if there is one. The game is rebuilt
+	 * from its base layout and every logged entry is applied on top. The returned game is not
+	 * journaled yet; call {@link GameModel#startJournal(Path)} to continue journaling it.
+	 *
+	 * @param dir the journal directory
+	 * @return the restored game, or null if the directory holds no complete journal
+	 * @throws IOException if a journal file cannot be read
+	 */
+	public static GameModel recover(Path dir) throws IOException {
+		Path[] candidates = {dir.resolve("journal-0.bin"), dir.resolve("journal-1.bin")};
+		Path latest = null;
+		long latestGeneration = 0;
+		for (Path file : candidates) {
+			long g = readGeneration(file);
+			if (g > latestGeneration) {
+				latest = file;
+				latestGeneration = g;
+			}
+		}
+		if (latest == null) {
+			return null;
+		}
+
+		byte[] data = Files.readAllBytes(latest);
+		int[] at = {MAGIC.length + 1 + 8};
+		long seed = 0;
+		for (int i = 0; i < 8; i++) {
+			seed = (seed << 8) | (data[at[0]++] & 0xFF);
+		}
+		Difficulty difficulty = Difficulty.values()[data[at[0]++]];
+		int length = readVarint(data, at);
+		String characterImage = new String(data, at[0], length, StandardCharsets.UTF_8);
+		at[0] += length;
+
+		GameModel model = new GameModel(characterImage, difficulty, seed);
+		Map map = model.getMap();
+		Miner miner = model.getMiner();
+		int cols = map.getCols();
+		while (at[0] < data.length && data[at[0]] != 0) {
+			Entry entry = Entry.values()[data[at[0]++]];
+			int arg = readVarint(data, at);
+			switch (entry) {
+				case TILE -> map.getCells()[arg / cols][arg % cols]
+						.setContents(CellType.values()[readVarint(data, at)]);
+				case GOLD -> miner.setGoldAmount(arg);
+				case BOMBS -> miner.setBombs(arg);
+				case KEY -> {
+					if (!model.getKeyCodeManager().isKeyCollected(arg)) {
+						model.collectKey(arg);
+					}
+				}
+				case PICKAXE -> Shop.applyPickaxeLevel(miner, arg);
+				case OXYGEN_UPGRADE -> Shop.applyOxygenLevel(miner, arg);
+				case TORCH -> map.getLight().toggleTorch(arg / cols, arg % cols);
+				case MOVE -> model.placeMiner(arg / cols, arg % cols);
+				case OXYGEN -> miner.restoreOxygen((arg >>> 1) ^ -(arg & 1));
+				default -> throw new IOException("Corrupt journal entry " + entry);
+			}
+		}
+		model.clearRewind();
+		return model;
+	}
+
+	/**
+	 * Reads the generation of a complete journal file.
+	 *
+	 * @return the generation, or 0 if the file is missing or incomplete
+	 */
+	private static long readGeneration(Path file) throws IOException {
+		if (!Files.exists(file)) {
+			return 0;
+		}
+		byte[] head = new byte[MAGIC.length + 1 + 8];
+		try (InputStream in = Files.newInputStream(file)) {
+			if (in.readNBytes(head, 0, head.length) < head.length) {
+				return 0;
+			}
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (head[i] != MAGIC[i]) {
+				return 0;
+			}
+		}
+		if (head[MAGIC.length] != VERSION) {
+			return 0;
+		}
+		long g = 0;
+		for (int i = MAGIC.length + 1; i < head.length; i++) {
+			g = (g << 8) | (head[i] & 0xFF);
+		}
+		return g;
+	}
+
+	private static int readVarint(byte[] data, int[] at) throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			if (at[0] >= data.length || shift > 28) {
+				throw new IOException("Corrupt journal");
+			}
+			b = data[at[0]++];
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+}